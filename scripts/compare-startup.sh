@@ -0,0 +1,122 @@
+#!/usr/bin/env bash
+# 对比JVM和GraalVM原生镜像的启动时间与内存占用（Linux，依赖/proc和curl）
+#
+# 先分别构建两种产物：
+#   mvn -B clean package -DskipTests                 -> target/material-management-system-1.0.0.jar
+#   mvn -B -Pnative package -DskipTests              -> target/material-management-system（不要clean，保留jar）
+#
+# 用法：scripts/compare-startup.sh [每种模式的运行次数，默认5]
+# 环境变量：
+#   PORT        测试端口（默认18080）
+#   JAVA        java命令（默认java）
+#   EXTRA_ARGS  附加的应用参数（两种模式相同）
+#
+# 启动时间：从进程启动到首次成功返回静态资源（/css/style.css）的耗时；
+# 同时记录Spring Boot日志中的 "Started ... in N seconds"。
+# 内存：就绪后等待SETTLE_SECONDS秒读取的VmRSS，以及启动过程中的峰值VmHWM。
+# 默认关闭预热快照，两种模式都按冷启动测量。
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${PORT:-18080}"
+JAVA="${JAVA:-java}"
+SETTLE_SECONDS="${SETTLE_SECONDS:-3}"
+TIMEOUT_SECONDS="${TIMEOUT_SECONDS:-120}"
+EXTRA_ARGS="${EXTRA_ARGS:-}"
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+JAR="$ROOT/target/material-management-system-1.0.0.jar"
+NATIVE="$ROOT/target/material-management-system"
+LOG_DIR="$(mktemp -d)"
+APP_ARGS="--server.port=$PORT --material.management.snapshot.enabled=false $EXTRA_ARGS"
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+proc_kb() {
+    # $1=pid $2=字段名（VmRSS/VmHWM）
+    awk -v key="$2:" '$1 == key { print $2 }' "/proc/$1/status"
+}
+
+# 单次测量，输出：就绪耗时ms Spring报告秒数 RSS(KB) 峰值RSS(KB)
+measure() {
+    local mode="$1" run="$2" log="$LOG_DIR/$1-$2.log" pid start ready elapsed started rss hwm
+
+    start=$(now_ms)
+    if [ "$mode" = "jvm" ]; then
+        # shellcheck disable=SC2086
+        "$JAVA" -jar "$JAR" $APP_ARGS >"$log" 2>&1 &
+    else
+        # shellcheck disable=SC2086
+        "$NATIVE" $APP_ARGS >"$log" 2>&1 &
+    fi
+    pid=$!
+
+    ready=""
+    while [ $(( $(now_ms) - start )) -lt $(( TIMEOUT_SECONDS * 1000 )) ]; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "$mode 第 $run 次：进程已退出，日志：$log" >&2
+            exit 1
+        fi
+        if curl -fs -o /dev/null "http://localhost:$PORT/css/style.css"; then
+            ready=$(now_ms)
+            break
+        fi
+        sleep 0.02
+    done
+    if [ -z "$ready" ]; then
+        kill "$pid" 2>/dev/null || true
+        echo "$mode 第 $run 次：${TIMEOUT_SECONDS}秒内未就绪，日志：$log" >&2
+        exit 1
+    fi
+    elapsed=$(( ready - start ))
+
+    sleep "$SETTLE_SECONDS"
+    rss=$(proc_kb "$pid" VmRSS)
+    hwm=$(proc_kb "$pid" VmHWM)
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+
+    started=$(grep -oE 'Started MaterialManagementApplication in [0-9.]+ seconds' "$log" \
+        | grep -oE '[0-9.]+ seconds' | cut -d' ' -f1 || true)
+    echo "$elapsed ${started:--} $rss $hwm"
+}
+
+report() {
+    local mode="$1" results="$2"
+    awk -v mode="$mode" -v runs="$RUNS" '
+        { ready += $1; rss += $3; hwm += $4; if ($2 != "-") { started += $2; n++ } }
+        END {
+            printf "| %-6s | %5d | %10.0f | %12s | %9.1f | %13.1f |\n",
+                mode, runs, ready / NR, (n ? sprintf("%.3f", started / n) : "-"),
+                rss / NR / 1024, hwm / NR / 1024
+        }' <<<"$results"
+}
+
+for artifact in "$JAR" "$NATIVE"; do
+    if [ ! -e "$artifact" ]; then
+        echo "缺少构建产物：$artifact（构建命令见脚本开头）" >&2
+        exit 1
+    fi
+done
+
+declare -A RESULTS
+for mode in jvm native; do
+    RESULTS[$mode]=""
+    for run in $(seq 1 "$RUNS"); do
+        line=$(measure "$mode" "$run")
+        echo "$mode #$run: 就绪 $(cut -d' ' -f1 <<<"$line")ms, RSS $(( $(cut -d' ' -f3 <<<"$line") / 1024 ))MB" >&2
+        RESULTS[$mode]+="$line"$'\n'
+    done
+done
+
+echo
+echo "| 模式   | 次数  | 就绪(ms)   | Started(s)   | RSS(MB)   | 峰值RSS(MB)   |"
+echo "|--------|-------|------------|--------------|-----------|---------------|"
+for mode in jvm native; do
+    report "$mode" "$(sed '/^$/d' <<<"${RESULTS[$mode]}")"
+done
+echo
+echo "日志目录：$LOG_DIR"
@@ -1,7 +1,10 @@
 package com.material.management;
 
+import com.material.management.config.NativeRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * 材料数据管理系统主应用类
@@ -10,9 +13,13 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @version 1.0.0
  */
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class MaterialManagementApplication {
 
     public static void main(String[] args) {
+        // 缩略图生成使用AWT；原生镜像不会保留构建时的系统属性，需在运行时设置无界面模式
+        System.setProperty("java.awt.headless", "true");
         SpringApplication.run(MaterialManagementApplication.class, args);
         System.out.println("=================================");
         System.out.println("材料数据管理系统启动成功！");
@@ -0,0 +1,108 @@
+package com.material.management.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 隔离舱线程池配置
+ * API请求不再占用Tomcat工作线程，按依赖分别交给数据库、OSS读写、图片处理三个有界线程池执行，
+ * 各自有独立的线程数和队列上限，队列满时直接拒绝（返回503），
+ * 某一个依赖变慢只会耗尽它自己的线程池，不会拖垮其他页面。
+ * 流式响应体（下载、打包、CBOR导出）写出时间长，单独放在流式线程池中，不占用OSS线程池
+ *
+ * @author Material Management System
+ * @version 1.0.0
+ */
+@Configuration
+public class BulkheadConfig implements WebMvcConfigurer {
+
+    @Value("${material.management.bulkhead.db-threads:16}")
+    private int dbThreads;
+
+    @Value("${material.management.bulkhead.db-queue:100}")
+    private int dbQueue;
+
+    @Value("${material.management.bulkhead.oss-io-threads:64}")
+    private int ossIoThreads;
+
+    @Value("${material.management.bulkhead.oss-io-queue:500}")
+    private int ossIoQueue;
+
+    @Value("${material.management.bulkhead.image-threads:16}")
+    private int imageThreads;
+
+    @Value("${material.management.bulkhead.image-queue:200}")
+    private int imageQueue;
+
+    @Value("${material.management.bulkhead.streaming-threads:16}")
+    private int streamingThreads;
+
+    @Value("${material.management.bulkhead.streaming-queue:50}")
+    private int streamingQueue;
+
+    @Value("${material.management.bulkhead.async-timeout-ms:600000}")
+    private long asyncTimeoutMs;
+
+    /**
+     * 数据库查询线程池
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService dbExecutor() {
+        return boundedExecutor("api-db-", dbThreads, dbQueue);
+    }
+
+    /**
+     * OSS读写线程池（文本、下载、上传等短时OSS调用）
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService ossIoExecutor() {
+        return boundedExecutor("api-oss-", ossIoThreads, ossIoQueue);
+    }
+
+    /**
+     * 图片处理线程池（缩略图和原图请求）
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService imageExecutor() {
+        return boundedExecutor("api-image-", imageThreads, imageQueue);
+    }
+
+    /**
+     * 流式响应体线程池（StreamingResponseBody：大文件下载、ZIP打包、CBOR导出）
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService streamingExecutor() {
+        return boundedExecutor("api-stream-", streamingThreads, streamingQueue);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new TaskExecutorAdapter(streamingExecutor()));
+        configurer.setDefaultTimeout(asyncTimeoutMs);
+    }
+
+    /**
+     * 固定线程数、有界队列，队列满时抛出RejectedExecutionException
+     */
+    private static ExecutorService boundedExecutor(String namePrefix, int threads, int queueCapacity) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), r -> {
+                Thread thread = new Thread(r, namePrefix + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,121 @@
+package com.material.management.config;
+
+import com.material.management.model.ChangeFingerprint;
+import com.material.management.model.ColumnInfo;
+import com.material.management.model.DatabaseInfo;
+import com.material.management.model.TableInfo;
+import com.material.management.model.WarmStartSnapshot;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+/**
+ * GraalVM原生镜像的运行时提示
+ * 控制器、配置类和@Value注入由Spring AOT处理，MySQL驱动的元数据来自GraalVM可达性元数据仓库；
+ * 这里补充AOT推断不到的部分：
+ * 接口返回的Map中和Thymeleaf模板里用到的模型（Jackson和SpEL按getter反射访问），
+ * 预热快照的CBOR反序列化，OSS SDK和HttpClient从classpath读取的资源，
+ * 以及缩略图生成时AWT/ImageIO本地库（libawt、libjavajpeg）通过JNI回调的类
+ *
+ * @author Material Management System
+ * @version 1.0.0
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    /**
+     * 无界面模式下解码、缩放、编码图片时本地代码通过JNI访问的类（字段、方法、构造器）
+     */
+    private static final String[] AWT_JNI_TYPES = {
+            "java.awt.AlphaComposite",
+            "java.awt.Color",
+            "java.awt.geom.AffineTransform",
+            "java.awt.geom.GeneralPath",
+            "java.awt.geom.Path2D",
+            "java.awt.geom.Path2D$Float",
+            "java.awt.geom.Point2D$Float",
+            "java.awt.geom.Rectangle2D$Float",
+            "java.awt.image.BufferedImage",
+            "java.awt.image.ColorModel",
+            "java.awt.image.ComponentSampleModel",
+            "java.awt.image.DirectColorModel",
+            "java.awt.image.IndexColorModel",
+            "java.awt.image.Kernel",
+            "java.awt.image.Raster",
+            "java.awt.image.SampleModel",
+            "java.awt.image.SinglePixelPackedSampleModel",
+            "sun.awt.image.BufImgSurfaceData$ICMColorData",
+            "sun.awt.image.ByteComponentRaster",
+            "sun.awt.image.BytePackedRaster",
+            "sun.awt.image.ImagingLib",
+            "sun.awt.image.IntegerComponentRaster",
+            "sun.awt.image.ShortComponentRaster",
+            "sun.java2d.Disposer",
+            "sun.java2d.InvalidPipeException",
+            "sun.java2d.NullSurfaceData",
+            "sun.java2d.SunGraphics2D",
+            "sun.java2d.SurfaceData",
+            "sun.java2d.loops.Blit",
+            "sun.java2d.loops.BlitBg",
+            "sun.java2d.loops.CompositeType",
+            "sun.java2d.loops.DrawGlyphList",
+            "sun.java2d.loops.DrawGlyphListAA",
+            "sun.java2d.loops.DrawGlyphListLCD",
+            "sun.java2d.loops.DrawLine",
+            "sun.java2d.loops.DrawParallelogram",
+            "sun.java2d.loops.DrawPath",
+            "sun.java2d.loops.DrawPolygons",
+            "sun.java2d.loops.DrawRect",
+            "sun.java2d.loops.FillParallelogram",
+            "sun.java2d.loops.FillPath",
+            "sun.java2d.loops.FillRect",
+            "sun.java2d.loops.FillSpans",
+            "sun.java2d.loops.GraphicsPrimitive",
+            "sun.java2d.loops.GraphicsPrimitiveMgr",
+            "sun.java2d.loops.MaskBlit",
+            "sun.java2d.loops.MaskFill",
+            "sun.java2d.loops.ScaledBlit",
+            "sun.java2d.loops.SurfaceType",
+            "sun.java2d.loops.TransformHelper",
+            "sun.java2d.loops.XORComposite",
+            "sun.java2d.pipe.Region",
+            "sun.java2d.pipe.RegionIterator",
+            "sun.java2d.pipe.ShapeSpanIterator",
+            "sun.java2d.pipe.SpanClipRenderer",
+            "com.sun.imageio.plugins.jpeg.JPEGImageReader",
+            "com.sun.imageio.plugins.jpeg.JPEGImageWriter",
+            "javax.imageio.plugins.jpeg.JPEGHuffmanTable",
+            "javax.imageio.plugins.jpeg.JPEGQTable",
+            "javax.imageio.stream.ImageInputStream",
+            "javax.imageio.stream.ImageOutputStream"
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // 构造器、getter/setter及字段（含List<ColumnInfo>等泛型参数中的类型）
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                TableInfo.class, ColumnInfo.class, DatabaseInfo.class,
+                ChangeFingerprint.class, WarmStartSnapshot.class);
+
+        // OSS SDK：错误信息的ResourceBundle、按扩展名推断Content-Type的映射表、User-Agent中的版本号
+        hints.resources().registerResourceBundle("common");
+        hints.resources().registerResourceBundle("oss");
+        hints.resources().registerPattern("oss.mime.types");
+        hints.resources().registerPattern("versioninfo.properties");
+
+        // HttpClient：HTTPS主机名校验用的公共后缀表、User-Agent中的版本号
+        hints.resources().registerPattern("mozilla/public-suffix-list.txt");
+        hints.resources().registerPattern("org/apache/http/version.properties");
+        hints.resources().registerPattern("org/apache/http/client/version.properties");
+
+        // AWT/ImageIO：本地库回调的类，以及颜色空间转换用的ICC配置文件
+        for (String type : AWT_JNI_TYPES) {
+            hints.jni().registerType(TypeReference.of(type),
+                    MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+        hints.resources().registerPattern("sun/java2d/cmm/profiles/*.pf");
+    }
+}
@@ -0,0 +1,30 @@
+package com.material.management.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.material.management.controller.NonBlockingOssServlet;
+import com.material.management.service.OssService;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 非阻塞OSS接口注册
+ * 独立于DispatcherServlet注册在 /api/nb/*，以便直接使用Servlet异步非阻塞I/O
+ *
+ * @author Material Management System
+ * @version 1.0.0
+ */
+@Configuration
+public class NonBlockingConfig {
+
+    @Bean
+    public ServletRegistrationBean<NonBlockingOssServlet> nonBlockingOssServlet(OssService ossService,
+                                                                                ObjectMapper objectMapper) {
+        ServletRegistrationBean<NonBlockingOssServlet> registration =
+            new ServletRegistrationBean<>(new NonBlockingOssServlet(ossService, objectMapper), "/api/nb/*");
+        registration.setName("nonBlockingOssServlet");
+        registration.setAsyncSupported(true);
+        registration.setLoadOnStartup(1);
+        return registration;
+    }
+}
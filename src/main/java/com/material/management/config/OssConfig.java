@@ -3,6 +3,9 @@ package com.material.management.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * OSS配置类
  * 
@@ -18,14 +21,104 @@ public class OssConfig {
     private String endpoint = "oss-cn-wuhan-lr.aliyuncs.com";
     private String textBucketName = "testcxf";
     private String imageBucketName = "tupian-cxf";
+
+    // 客户端连接池与超时配置
+    private int maxConnections = 128;
+    private int connectionTimeoutMs = 3000;
+    private int socketTimeoutMs = 10000;
+    private int connectionRequestTimeoutMs = 2000;
+    private long idleConnectionTimeMs = 60000;
+
+    // 重试与熔断配置
+    private int retryMaxAttempts = 3;
+    private long retryBaseDelayMs = 100;
+    private long retryMaxDelayMs = 2000;
+    private int breakerFailureThreshold = 5;
+    private long breakerOpenMs = 30000;
+
+    // 小对象读取的对冲请求配置
+    private boolean hedgeEnabled = false;
+    private double hedgePercentile = 95;
+    private long hedgeMinDelayMs = 50;
+    private long hedgeMaxDelayMs = 1000;
+    private double hedgeBudgetRatio = 0.05;
+    private int hedgeThreads = 32;
+
+    // 失败结果缓存配置
+    private long negativeMissingTtlMs = 60000;
+    private long negativeTransientErrorTtlMs = 15000;
+    private long negativePermanentErrorTtlMs = 600000;
+    private long negativeMaxTtlMs = 1800000;
+    private int negativeMaxEntries = 20000;
+
+    // 本地镜像配置
+    private boolean mirrorEnabled = false;
+    private String mirrorDir = "data/mirror";
+    private long mirrorMaxBytes = 10L * 1024 * 1024 * 1024;
+    private long mirrorMaxObjectBytes = 256L * 1024 * 1024;
+    private int mirrorFillThreads = 2;
     
     // 缩略图配置
     private int thumbnailWidth = 150;
     private int thumbnailHeight = 150;
     private String thumbnailFormat = "jpg";
+
+    // 缩略图金字塔：除基础尺寸外额外生成的宽度（表格 / 悬停预览 / 详情大图）
+    private List<Integer> thumbnailSizes = new ArrayList<>(List.of(150, 480, 1280));
+
+    // 缩略图生成线程池配置
+    private int thumbnailWorkers = 4;
+    private int thumbnailQueueCapacity = 200;
+    private long thumbnailWaitTimeoutMs = 10000;
+
+    // 缩略图后台预生成与衍生存储配置
+    private boolean pregenerateEnabled = true;
+    private long pregenerateIntervalMs = 300000;
+    private long pregenerateTimeoutMs = 60000;
+    private int pregenerateMaxInFlight = 16;
+    private String derivativeStore = "local";   // local 或 oss
+    private String derivativeLocalDir = "data/derivatives";
+    private String derivativePrefix = "_derivatives/";
     
     // 文本预览配置
     private int textPreviewLength = 100;
+
+    // CSV分页预览配置
+    private int csvPageSize = 200;
+    private int csvMaxPageRows = 1000;
+    private int csvIndexInterval = 1000;
+
+    // 批量预览配置
+    private int batchConcurrency = 16;
+    private int batchMaxItems = 200;
+
+    // 附件打包下载配置
+    private int zipConcurrency = 16;
+    private int zipPrefetch = 8;
+    private int zipMaxItems = 2000;
+
+    // 分片上传与导出配置
+    private int uploadConcurrency = 8;
+    private int uploadPartSizeBytes = 8 * 1024 * 1024;
+    private int uploadMaxInFlightParts = 4;
+    private String exportPrefix = "exports/";
+    private long shareUrlExpireSeconds = 7 * 24 * 3600;
+    private long uploadResumableThresholdBytes = 64L * 1024 * 1024;
+    private String uploadSpoolDir = "data/upload-spool";
+
+    // 非阻塞接口（/api/nb/*）配置
+    private int nbThreads = 4;
+    private long nbPresignExpireSeconds = 300;
+    private int nbMaxBufferedBytes = 256 * 1024;
+    private int nbBatchConcurrency = 32;
+    private long nbTimeoutMs = 600000;
+
+    // 大对象并行分段读取配置
+    private long parallelThresholdBytes = 16 * 1024 * 1024;
+    private long parallelPartSizeBytes = 8 * 1024 * 1024;
+    private int parallelThreads = 8;
+    private int parallelWindow = 4;
+    private int parallelPartRetries = 3;
     
     public OssConfig() {}
 
@@ -94,6 +187,30 @@ public class OssConfig {
         this.thumbnailFormat = thumbnailFormat;
     }
 
+    public int getThumbnailWorkers() {
+        return thumbnailWorkers;
+    }
+
+    public void setThumbnailWorkers(int thumbnailWorkers) {
+        this.thumbnailWorkers = thumbnailWorkers;
+    }
+
+    public int getThumbnailQueueCapacity() {
+        return thumbnailQueueCapacity;
+    }
+
+    public void setThumbnailQueueCapacity(int thumbnailQueueCapacity) {
+        this.thumbnailQueueCapacity = thumbnailQueueCapacity;
+    }
+
+    public long getThumbnailWaitTimeoutMs() {
+        return thumbnailWaitTimeoutMs;
+    }
+
+    public void setThumbnailWaitTimeoutMs(long thumbnailWaitTimeoutMs) {
+        this.thumbnailWaitTimeoutMs = thumbnailWaitTimeoutMs;
+    }
+
     public int getTextPreviewLength() {
         return textPreviewLength;
     }
@@ -102,6 +219,478 @@ public class OssConfig {
         this.textPreviewLength = textPreviewLength;
     }
 
+    public int getBatchConcurrency() {
+        return batchConcurrency;
+    }
+
+    public void setBatchConcurrency(int batchConcurrency) {
+        this.batchConcurrency = batchConcurrency;
+    }
+
+    public int getBatchMaxItems() {
+        return batchMaxItems;
+    }
+
+    public void setBatchMaxItems(int batchMaxItems) {
+        this.batchMaxItems = batchMaxItems;
+    }
+
+    public boolean isPregenerateEnabled() {
+        return pregenerateEnabled;
+    }
+
+    public void setPregenerateEnabled(boolean pregenerateEnabled) {
+        this.pregenerateEnabled = pregenerateEnabled;
+    }
+
+    public long getPregenerateIntervalMs() {
+        return pregenerateIntervalMs;
+    }
+
+    public void setPregenerateIntervalMs(long pregenerateIntervalMs) {
+        this.pregenerateIntervalMs = pregenerateIntervalMs;
+    }
+
+    public long getPregenerateTimeoutMs() {
+        return pregenerateTimeoutMs;
+    }
+
+    public void setPregenerateTimeoutMs(long pregenerateTimeoutMs) {
+        this.pregenerateTimeoutMs = pregenerateTimeoutMs;
+    }
+
+    public int getPregenerateMaxInFlight() {
+        return pregenerateMaxInFlight;
+    }
+
+    public void setPregenerateMaxInFlight(int pregenerateMaxInFlight) {
+        this.pregenerateMaxInFlight = pregenerateMaxInFlight;
+    }
+
+    public String getDerivativeStore() {
+        return derivativeStore;
+    }
+
+    public void setDerivativeStore(String derivativeStore) {
+        this.derivativeStore = derivativeStore;
+    }
+
+    public String getDerivativeLocalDir() {
+        return derivativeLocalDir;
+    }
+
+    public void setDerivativeLocalDir(String derivativeLocalDir) {
+        this.derivativeLocalDir = derivativeLocalDir;
+    }
+
+    public String getDerivativePrefix() {
+        return derivativePrefix;
+    }
+
+    public void setDerivativePrefix(String derivativePrefix) {
+        this.derivativePrefix = derivativePrefix;
+    }
+
+    public List<Integer> getThumbnailSizes() {
+        return thumbnailSizes;
+    }
+
+    public void setThumbnailSizes(List<Integer> thumbnailSizes) {
+        this.thumbnailSizes = thumbnailSizes;
+    }
+
+    public long getParallelThresholdBytes() {
+        return parallelThresholdBytes;
+    }
+
+    public void setParallelThresholdBytes(long parallelThresholdBytes) {
+        this.parallelThresholdBytes = parallelThresholdBytes;
+    }
+
+    public long getParallelPartSizeBytes() {
+        return parallelPartSizeBytes;
+    }
+
+    public void setParallelPartSizeBytes(long parallelPartSizeBytes) {
+        this.parallelPartSizeBytes = parallelPartSizeBytes;
+    }
+
+    public int getParallelThreads() {
+        return parallelThreads;
+    }
+
+    public void setParallelThreads(int parallelThreads) {
+        this.parallelThreads = parallelThreads;
+    }
+
+    public int getParallelWindow() {
+        return parallelWindow;
+    }
+
+    public void setParallelWindow(int parallelWindow) {
+        this.parallelWindow = parallelWindow;
+    }
+
+    public int getParallelPartRetries() {
+        return parallelPartRetries;
+    }
+
+    public void setParallelPartRetries(int parallelPartRetries) {
+        this.parallelPartRetries = parallelPartRetries;
+    }
+
+    public int getCsvPageSize() {
+        return csvPageSize;
+    }
+
+    public void setCsvPageSize(int csvPageSize) {
+        this.csvPageSize = csvPageSize;
+    }
+
+    public int getCsvMaxPageRows() {
+        return csvMaxPageRows;
+    }
+
+    public void setCsvMaxPageRows(int csvMaxPageRows) {
+        this.csvMaxPageRows = csvMaxPageRows;
+    }
+
+    public int getCsvIndexInterval() {
+        return csvIndexInterval;
+    }
+
+    public void setCsvIndexInterval(int csvIndexInterval) {
+        this.csvIndexInterval = csvIndexInterval;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getConnectionTimeoutMs() {
+        return connectionTimeoutMs;
+    }
+
+    public void setConnectionTimeoutMs(int connectionTimeoutMs) {
+        this.connectionTimeoutMs = connectionTimeoutMs;
+    }
+
+    public int getSocketTimeoutMs() {
+        return socketTimeoutMs;
+    }
+
+    public void setSocketTimeoutMs(int socketTimeoutMs) {
+        this.socketTimeoutMs = socketTimeoutMs;
+    }
+
+    public int getConnectionRequestTimeoutMs() {
+        return connectionRequestTimeoutMs;
+    }
+
+    public void setConnectionRequestTimeoutMs(int connectionRequestTimeoutMs) {
+        this.connectionRequestTimeoutMs = connectionRequestTimeoutMs;
+    }
+
+    public long getIdleConnectionTimeMs() {
+        return idleConnectionTimeMs;
+    }
+
+    public void setIdleConnectionTimeMs(long idleConnectionTimeMs) {
+        this.idleConnectionTimeMs = idleConnectionTimeMs;
+    }
+
+    public int getRetryMaxAttempts() {
+        return retryMaxAttempts;
+    }
+
+    public void setRetryMaxAttempts(int retryMaxAttempts) {
+        this.retryMaxAttempts = retryMaxAttempts;
+    }
+
+    public long getRetryBaseDelayMs() {
+        return retryBaseDelayMs;
+    }
+
+    public void setRetryBaseDelayMs(long retryBaseDelayMs) {
+        this.retryBaseDelayMs = retryBaseDelayMs;
+    }
+
+    public long getRetryMaxDelayMs() {
+        return retryMaxDelayMs;
+    }
+
+    public void setRetryMaxDelayMs(long retryMaxDelayMs) {
+        this.retryMaxDelayMs = retryMaxDelayMs;
+    }
+
+    public int getBreakerFailureThreshold() {
+        return breakerFailureThreshold;
+    }
+
+    public void setBreakerFailureThreshold(int breakerFailureThreshold) {
+        this.breakerFailureThreshold = breakerFailureThreshold;
+    }
+
+    public long getBreakerOpenMs() {
+        return breakerOpenMs;
+    }
+
+    public void setBreakerOpenMs(long breakerOpenMs) {
+        this.breakerOpenMs = breakerOpenMs;
+    }
+
+    public boolean isHedgeEnabled() {
+        return hedgeEnabled;
+    }
+
+    public void setHedgeEnabled(boolean hedgeEnabled) {
+        this.hedgeEnabled = hedgeEnabled;
+    }
+
+    public double getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    public void setHedgePercentile(double hedgePercentile) {
+        this.hedgePercentile = hedgePercentile;
+    }
+
+    public long getHedgeMinDelayMs() {
+        return hedgeMinDelayMs;
+    }
+
+    public void setHedgeMinDelayMs(long hedgeMinDelayMs) {
+        this.hedgeMinDelayMs = hedgeMinDelayMs;
+    }
+
+    public long getHedgeMaxDelayMs() {
+        return hedgeMaxDelayMs;
+    }
+
+    public void setHedgeMaxDelayMs(long hedgeMaxDelayMs) {
+        this.hedgeMaxDelayMs = hedgeMaxDelayMs;
+    }
+
+    public double getHedgeBudgetRatio() {
+        return hedgeBudgetRatio;
+    }
+
+    public void setHedgeBudgetRatio(double hedgeBudgetRatio) {
+        this.hedgeBudgetRatio = hedgeBudgetRatio;
+    }
+
+    public int getHedgeThreads() {
+        return hedgeThreads;
+    }
+
+    public void setHedgeThreads(int hedgeThreads) {
+        this.hedgeThreads = hedgeThreads;
+    }
+
+    public long getNegativeMissingTtlMs() {
+        return negativeMissingTtlMs;
+    }
+
+    public void setNegativeMissingTtlMs(long negativeMissingTtlMs) {
+        this.negativeMissingTtlMs = negativeMissingTtlMs;
+    }
+
+    public long getNegativeTransientErrorTtlMs() {
+        return negativeTransientErrorTtlMs;
+    }
+
+    public void setNegativeTransientErrorTtlMs(long negativeTransientErrorTtlMs) {
+        this.negativeTransientErrorTtlMs = negativeTransientErrorTtlMs;
+    }
+
+    public long getNegativePermanentErrorTtlMs() {
+        return negativePermanentErrorTtlMs;
+    }
+
+    public void setNegativePermanentErrorTtlMs(long negativePermanentErrorTtlMs) {
+        this.negativePermanentErrorTtlMs = negativePermanentErrorTtlMs;
+    }
+
+    public long getNegativeMaxTtlMs() {
+        return negativeMaxTtlMs;
+    }
+
+    public void setNegativeMaxTtlMs(long negativeMaxTtlMs) {
+        this.negativeMaxTtlMs = negativeMaxTtlMs;
+    }
+
+    public int getNegativeMaxEntries() {
+        return negativeMaxEntries;
+    }
+
+    public void setNegativeMaxEntries(int negativeMaxEntries) {
+        this.negativeMaxEntries = negativeMaxEntries;
+    }
+
+    public boolean isMirrorEnabled() {
+        return mirrorEnabled;
+    }
+
+    public void setMirrorEnabled(boolean mirrorEnabled) {
+        this.mirrorEnabled = mirrorEnabled;
+    }
+
+    public String getMirrorDir() {
+        return mirrorDir;
+    }
+
+    public void setMirrorDir(String mirrorDir) {
+        this.mirrorDir = mirrorDir;
+    }
+
+    public long getMirrorMaxBytes() {
+        return mirrorMaxBytes;
+    }
+
+    public void setMirrorMaxBytes(long mirrorMaxBytes) {
+        this.mirrorMaxBytes = mirrorMaxBytes;
+    }
+
+    public long getMirrorMaxObjectBytes() {
+        return mirrorMaxObjectBytes;
+    }
+
+    public void setMirrorMaxObjectBytes(long mirrorMaxObjectBytes) {
+        this.mirrorMaxObjectBytes = mirrorMaxObjectBytes;
+    }
+
+    public int getMirrorFillThreads() {
+        return mirrorFillThreads;
+    }
+
+    public void setMirrorFillThreads(int mirrorFillThreads) {
+        this.mirrorFillThreads = mirrorFillThreads;
+    }
+
+    public int getZipConcurrency() {
+        return zipConcurrency;
+    }
+
+    public void setZipConcurrency(int zipConcurrency) {
+        this.zipConcurrency = zipConcurrency;
+    }
+
+    public int getZipPrefetch() {
+        return zipPrefetch;
+    }
+
+    public void setZipPrefetch(int zipPrefetch) {
+        this.zipPrefetch = zipPrefetch;
+    }
+
+    public int getZipMaxItems() {
+        return zipMaxItems;
+    }
+
+    public void setZipMaxItems(int zipMaxItems) {
+        this.zipMaxItems = zipMaxItems;
+    }
+
+    public int getUploadConcurrency() {
+        return uploadConcurrency;
+    }
+
+    public void setUploadConcurrency(int uploadConcurrency) {
+        this.uploadConcurrency = uploadConcurrency;
+    }
+
+    public int getUploadPartSizeBytes() {
+        return uploadPartSizeBytes;
+    }
+
+    public void setUploadPartSizeBytes(int uploadPartSizeBytes) {
+        this.uploadPartSizeBytes = uploadPartSizeBytes;
+    }
+
+    public int getUploadMaxInFlightParts() {
+        return uploadMaxInFlightParts;
+    }
+
+    public void setUploadMaxInFlightParts(int uploadMaxInFlightParts) {
+        this.uploadMaxInFlightParts = uploadMaxInFlightParts;
+    }
+
+    public String getExportPrefix() {
+        return exportPrefix;
+    }
+
+    public void setExportPrefix(String exportPrefix) {
+        this.exportPrefix = exportPrefix;
+    }
+
+    public long getShareUrlExpireSeconds() {
+        return shareUrlExpireSeconds;
+    }
+
+    public void setShareUrlExpireSeconds(long shareUrlExpireSeconds) {
+        this.shareUrlExpireSeconds = shareUrlExpireSeconds;
+    }
+
+    public long getUploadResumableThresholdBytes() {
+        return uploadResumableThresholdBytes;
+    }
+
+    public void setUploadResumableThresholdBytes(long uploadResumableThresholdBytes) {
+        this.uploadResumableThresholdBytes = uploadResumableThresholdBytes;
+    }
+
+    public String getUploadSpoolDir() {
+        return uploadSpoolDir;
+    }
+
+    public void setUploadSpoolDir(String uploadSpoolDir) {
+        this.uploadSpoolDir = uploadSpoolDir;
+    }
+
+    public int getNbThreads() {
+        return nbThreads;
+    }
+
+    public void setNbThreads(int nbThreads) {
+        this.nbThreads = nbThreads;
+    }
+
+    public long getNbPresignExpireSeconds() {
+        return nbPresignExpireSeconds;
+    }
+
+    public void setNbPresignExpireSeconds(long nbPresignExpireSeconds) {
+        this.nbPresignExpireSeconds = nbPresignExpireSeconds;
+    }
+
+    public int getNbMaxBufferedBytes() {
+        return nbMaxBufferedBytes;
+    }
+
+    public void setNbMaxBufferedBytes(int nbMaxBufferedBytes) {
+        this.nbMaxBufferedBytes = nbMaxBufferedBytes;
+    }
+
+    public int getNbBatchConcurrency() {
+        return nbBatchConcurrency;
+    }
+
+    public void setNbBatchConcurrency(int nbBatchConcurrency) {
+        this.nbBatchConcurrency = nbBatchConcurrency;
+    }
+
+    public long getNbTimeoutMs() {
+        return nbTimeoutMs;
+    }
+
+    public void setNbTimeoutMs(long nbTimeoutMs) {
+        this.nbTimeoutMs = nbTimeoutMs;
+    }
+
     @Override
     public String toString() {
         return "OssConfig{" +
@@ -112,7 +701,20 @@ public class OssConfig {
                 ", thumbnailWidth=" + thumbnailWidth +
                 ", thumbnailHeight=" + thumbnailHeight +
                 ", thumbnailFormat='" + thumbnailFormat + '\'' +
+                ", thumbnailWorkers=" + thumbnailWorkers +
+                ", thumbnailQueueCapacity=" + thumbnailQueueCapacity +
                 ", textPreviewLength=" + textPreviewLength +
+                ", batchConcurrency=" + batchConcurrency +
+                ", batchMaxItems=" + batchMaxItems +
+                ", pregenerateEnabled=" + pregenerateEnabled +
+                ", derivativeStore='" + derivativeStore + '\'' +
+                ", thumbnailSizes=" + thumbnailSizes +
+                ", parallelThresholdBytes=" + parallelThresholdBytes +
+                ", parallelPartSizeBytes=" + parallelPartSizeBytes +
+                ", maxConnections=" + maxConnections +
+                ", socketTimeoutMs=" + socketTimeoutMs +
+                ", hedgeEnabled=" + hedgeEnabled +
+                ", mirrorEnabled=" + mirrorEnabled +
                 '}';
     }
 }
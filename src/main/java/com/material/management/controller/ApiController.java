@@ -1,19 +1,46 @@
 package com.material.management.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.aliyun.oss.model.ObjectMetadata;
+import com.material.management.model.ChangeFingerprint;
 import com.material.management.model.DatabaseInfo;
 import com.material.management.model.TableInfo;
+import com.material.management.service.CircuitBreaker;
 import com.material.management.service.DatabaseService;
 import com.material.management.service.OssService;
+import com.material.management.service.ThumbnailWorkerPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 /**
  * REST API控制器
@@ -34,294 +61,844 @@ public class ApiController {
     @Autowired
     private OssService ossService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // 隔离舱线程池：数据库、OSS读写、图片处理各自独立，见BulkheadConfig
+    @Autowired
+    @Qualifier("dbExecutor")
+    private ExecutorService dbExecutor;
+
+    @Autowired
+    @Qualifier("ossIoExecutor")
+    private ExecutorService ossIoExecutor;
+
+    @Autowired
+    @Qualifier("imageExecutor")
+    private ExecutorService imageExecutor;
+
+    @Autowired
+    @Qualifier("streamingExecutor")
+    private ExecutorService streamingExecutor;
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    /**
+     * 线程池队列已满：快速返回503，由客户端稍后重试
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, Object>> handleRejected(RejectedExecutionException e) {
+        logger.warn("请求被拒绝，线程池已满: {}", e.getMessage());
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", "服务繁忙，请稍后重试");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(response);
+    }
+
     /**
      * 测试数据库连接
      */
     @GetMapping("/test-connection")
-    public ResponseEntity<Map<String, Object>> testConnection() {
-        Map<String, Object> response = new HashMap<>();
-        try {
-            boolean isConnected = databaseService.testConnection();
-            response.put("success", isConnected);
-            response.put("message", isConnected ? "数据库连接成功" : "数据库连接失败");
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> testConnection() {
+        return CompletableFuture.supplyAsync(() -> {
+            Map<String, Object> response = new HashMap<>();
+            try {
+                boolean isConnected = databaseService.testConnection();
+                response.put("success", isConnected);
+                response.put("message", isConnected ? "数据库连接成功" : "数据库连接失败");
             
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "连接测试异常: " + e.getMessage());
-            logger.error("数据库连接测试异常: {}", e.getMessage());
+                return ResponseEntity.ok(response);
+            } catch (Exception e) {
+                response.put("success", false);
+                response.put("message", "连接测试异常: " + e.getMessage());
+                logger.error("数据库连接测试异常: {}", e.getMessage());
             
-            return ResponseEntity.status(500).body(response);
-        }
+                return ResponseEntity.status(500).body(response);
+            }
+        }, dbExecutor);
     }
 
     /**
      * 获取数据库列表
      */
     @GetMapping("/databases")
-    public ResponseEntity<Map<String, Object>> getDatabases() {
-        Map<String, Object> response = new HashMap<>();
-        try {
-            List<DatabaseInfo> databases = databaseService.getDatabases();
-            response.put("success", true);
-            response.put("data", databases);
-            response.put("count", databases.size());
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getDatabases(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        return CompletableFuture.supplyAsync(() -> {
+            Map<String, Object> response = new HashMap<>();
+            try {
+                ChangeFingerprint fingerprint = fingerprintQuietly(databaseService::getDatabasesFingerprint);
+                String etag = buildEtag(fingerprint, "databases");
+                if (etagMatches(ifNoneMatch, etag)) {
+                    return notModified(etag, fingerprint);
+                }
+
+                List<DatabaseInfo> databases = databaseService.getDatabases();
+                response.put("success", true);
+                response.put("data", databases);
+                response.put("count", databases.size());
             
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "获取数据库列表失败: " + e.getMessage());
-            logger.error("获取数据库列表失败: {}", e.getMessage());
+                return withValidators(ResponseEntity.ok(), etag, fingerprint).body(response);
+            } catch (Exception e) {
+                response.put("success", false);
+                response.put("message", "获取数据库列表失败: " + e.getMessage());
+                logger.error("获取数据库列表失败: {}", e.getMessage());
             
-            return ResponseEntity.status(500).body(response);
-        }
+                return ResponseEntity.status(500).body(response);
+            }
+        }, dbExecutor);
     }
 
     /**
      * 获取指定数据库的表列表
      */
     @GetMapping("/databases/{databaseName}/tables")
-    public ResponseEntity<Map<String, Object>> getTables(@PathVariable String databaseName) {
-        Map<String, Object> response = new HashMap<>();
-        try {
-            List<TableInfo> tables = databaseService.getTables(databaseName);
-            response.put("success", true);
-            response.put("data", tables);
-            response.put("count", tables.size());
-            response.put("databaseName", databaseName);
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getTables(
+            @PathVariable String databaseName,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        return CompletableFuture.supplyAsync(() -> {
+            Map<String, Object> response = new HashMap<>();
+            try {
+                // 先取指纹：指纹变化时会淘汰表信息缓存，下面读到的就是新数据
+                ChangeFingerprint fingerprint = fingerprintQuietly(() -> databaseService.getSchemaFingerprint(databaseName));
+                String etag = buildEtag(fingerprint, "tables", databaseName);
+                if (etagMatches(ifNoneMatch, etag)) {
+                    return notModified(etag, fingerprint);
+                }
+
+                List<TableInfo> tables = databaseService.getTables(databaseName);
+                response.put("success", true);
+                response.put("data", tables);
+                response.put("count", tables.size());
+                response.put("databaseName", databaseName);
             
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "获取表列表失败: " + e.getMessage());
-            logger.error("获取数据库 {} 的表列表失败: {}", databaseName, e.getMessage());
+                return withValidators(ResponseEntity.ok(), etag, fingerprint).body(response);
+            } catch (Exception e) {
+                response.put("success", false);
+                response.put("message", "获取表列表失败: " + e.getMessage());
+                logger.error("获取数据库 {} 的表列表失败: {}", databaseName, e.getMessage());
             
-            return ResponseEntity.status(500).body(response);
-        }
+                return ResponseEntity.status(500).body(response);
+            }
+        }, dbExecutor);
     }
 
     /**
      * 获取表数据（支持分页）- 优化版本
      */
     @GetMapping("/databases/{databaseName}/tables/{tableName}/data")
-    public ResponseEntity<Map<String, Object>> getTableData(
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getTableData(
             @PathVariable String databaseName,
             @PathVariable String tableName,
             @RequestParam(defaultValue = "50") int limit,  // 减少默认页面大小
-            @RequestParam(defaultValue = "0") int offset) {
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        // 文件列表指纹在列表缓存过期时需要列举OSS，先在OSS线程池取得，再进入数据库线程池
+        CompletableFuture<String> fileList = CompletableFuture.supplyAsync(this::fileListFingerprintQuietly, ossIoExecutor);
+        return fileList.thenApplyAsync(fileListFingerprint -> {
 
-        Map<String, Object> response = new HashMap<>();
-        try {
-            // 限制最大查询数量 - 更严格的限制
-            if (limit > 1000) {
-                limit = 1000;
+            Map<String, Object> response = new HashMap<>();
+            try {
+                // 限制最大查询数量 - 更严格的限制
+                int pageSize = Math.min(limit, 1000);
+
+                // 附件列依赖OSS文件列表，列表内容指纹也参与ETag；命中时不执行分页查询
+                ChangeFingerprint fingerprint = fileListFingerprint == null ? null : fingerprintQuietly(
+                        () -> databaseService.getTableFingerprint(databaseName, tableName));
+                String etag = buildEtag(fingerprint, "data", databaseName, tableName, pageSize, offset,
+                        fileListFingerprint);
+                if (etagMatches(ifNoneMatch, etag)) {
+                    return notModified(etag, fingerprint);
+                }
+
+                Map<String, Object> tableData = databaseService.getTableData(databaseName, tableName, pageSize, offset);
+                response.put("success", true);
+                response.put("data", tableData);
+
+                return withValidators(ResponseEntity.ok(), etag, fingerprint).body(response);
+            } catch (Exception e) {
+                response.put("success", false);
+                response.put("message", "获取表数据失败: " + e.getMessage());
+                logger.error("获取表数据失败 {}.{}: {}", databaseName, tableName, e.getMessage());
+
+                return ResponseEntity.status(500).body(response);
             }
+        }, dbExecutor);
+    }
 
-            Map<String, Object> tableData = databaseService.getTableData(databaseName, tableName, limit, offset);
-            response.put("success", true);
-            response.put("data", tableData);
 
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "获取表数据失败: " + e.getMessage());
-            logger.error("获取表数据失败 {}.{}: {}", databaseName, tableName, e.getMessage());
 
-            return ResponseEntity.status(500).body(response);
-        }
+    /**
+     * 获取表数据的CBOR编码（Accept: application/cbor）
+     * 行值从结果集按类型直接编码，省去JSON文本序列化；结构与JSON版本相同，另附列类型
+     */
+    @GetMapping(value = "/databases/{databaseName}/tables/{tableName}/data", produces = MediaType.APPLICATION_CBOR_VALUE)
+    public CompletableFuture<ResponseEntity<byte[]>> getTableDataCbor(
+            @PathVariable String databaseName,
+            @PathVariable String tableName,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        CompletableFuture<String> fileList = CompletableFuture.supplyAsync(this::fileListFingerprintQuietly, ossIoExecutor);
+        return fileList.thenApplyAsync(fileListFingerprint -> {
+            try {
+                int pageSize = Math.min(limit, 1000);
+
+                ChangeFingerprint fingerprint = fileListFingerprint == null ? null : fingerprintQuietly(
+                        () -> databaseService.getTableFingerprint(databaseName, tableName));
+                String etag = buildEtag(fingerprint, "data-cbor", databaseName, tableName, pageSize, offset,
+                        fileListFingerprint);
+                if (etagMatches(ifNoneMatch, etag)) {
+                    return notModified(etag, fingerprint);
+                }
+
+                // 单页最多1000行，在数据库线程池内编码完成后整体返回
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+                databaseService.writeTableDataCbor(databaseName, tableName, pageSize, offset, buffer);
+
+                return withValidators(ResponseEntity.ok(), etag, fingerprint)
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .body(buffer.toByteArray());
+            } catch (Exception e) {
+                logger.error("获取表数据(CBOR)失败 {}.{}: {}", databaseName, tableName, e.getMessage());
+                return ResponseEntity.status(500).build();
+            }
+        }, dbExecutor);
     }
 
+    /**
+     * 以SSE流式获取表数据：依次推送 meta（列信息）、rows（按批读取的行）、
+     * attachments（该批行的附件匹配结果）、done（总数和分页信息），失败时推送 error
+     */
+    @GetMapping("/databases/{databaseName}/tables/{tableName}/data/stream")
+    public ResponseEntity<SseEmitter> streamTableData(
+            @PathVariable String databaseName,
+            @PathVariable String tableName,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "0") int offset) {
+        int pageSize = Math.max(1, Math.min(limit, 1000));
+        SseEmitter emitter = new SseEmitter();
 
+        // 连接存活期间占用流式线程池；数据库线程只在读取结果集时占用，附件匹配和推送不占数据库线程
+        streamingExecutor.execute(() -> {
+            try {
+                databaseService.streamTableData(databaseName, tableName, pageSize, offset, dbExecutor, (event, data) ->
+                        emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON)));
+                emitter.complete();
+            } catch (IOException e) {
+                // 客户端已断开
+                logger.debug("表数据流已中断 {}.{}: {}", databaseName, tableName, e.getMessage());
+                emitter.completeWithError(e);
+            } catch (Exception e) {
+                logger.error("流式获取表数据失败 {}.{}: {}", databaseName, tableName, e.getMessage());
+                Map<String, Object> error = new HashMap<>();
+                error.put("success", false);
+                error.put("message", "获取表数据失败: " + e.getMessage());
+                try {
+                    emitter.send(SseEmitter.event().name("error").data(error, MediaType.APPLICATION_JSON));
+                } catch (IOException sendError) {
+                    logger.debug("推送错误事件失败: {}", sendError.getMessage());
+                }
+                emitter.complete();
+            }
+        });
+
+        return ResponseEntity.ok()
+                .header("Cache-Control", "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
 
     /**
      * 获取数据库统计信息
      */
     @GetMapping("/databases/{databaseName}/statistics")
-    public ResponseEntity<Map<String, Object>> getDatabaseStatistics(@PathVariable String databaseName) {
-        Map<String, Object> response = new HashMap<>();
-        try {
-            DatabaseInfo dbInfo = databaseService.getDatabaseStatistics(databaseName);
-            response.put("success", true);
-            response.put("data", dbInfo);
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getDatabaseStatistics(
+            @PathVariable String databaseName,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        return CompletableFuture.supplyAsync(() -> {
+            Map<String, Object> response = new HashMap<>();
+            try {
+                ChangeFingerprint fingerprint = fingerprintQuietly(() -> databaseService.getSchemaFingerprint(databaseName));
+                String etag = buildEtag(fingerprint, "statistics", databaseName);
+                if (etagMatches(ifNoneMatch, etag)) {
+                    return notModified(etag, fingerprint);
+                }
+
+                DatabaseInfo dbInfo = databaseService.getDatabaseStatistics(databaseName);
+                response.put("success", true);
+                response.put("data", dbInfo);
             
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "获取数据库统计信息失败: " + e.getMessage());
-            logger.error("获取数据库 {} 统计信息失败: {}", databaseName, e.getMessage());
+                return withValidators(ResponseEntity.ok(), etag, fingerprint).body(response);
+            } catch (Exception e) {
+                response.put("success", false);
+                response.put("message", "获取数据库统计信息失败: " + e.getMessage());
+                logger.error("获取数据库 {} 统计信息失败: {}", databaseName, e.getMessage());
             
-            return ResponseEntity.status(500).body(response);
+                return ResponseEntity.status(500).body(response);
+            }
+        }, dbExecutor);
+    }
+
+    /**
+     * 取变更指纹；information_schema查询失败时返回null，本次请求按无条件请求处理
+     */
+    private ChangeFingerprint fingerprintQuietly(Supplier<ChangeFingerprint> supplier) {
+        try {
+            return supplier.get();
+        } catch (Exception e) {
+            logger.warn("获取变更指纹失败，跳过条件请求: {}", e.getMessage());
+            return null;
         }
     }
 
     /**
-     * 获取图片完整内容
+     * 取OSS文件列表指纹；失败时返回null，本次请求不生成ETag
      */
-    @GetMapping("/oss/image/{fileName}")
-    public ResponseEntity<Map<String, Object>> getFullImage(@PathVariable String fileName) {
-        Map<String, Object> response = new HashMap<>();
+    private String fileListFingerprintQuietly() {
         try {
-            String imageBase64 = ossService.getImageFullBase64(fileName);
-            if (imageBase64 != null) {
-                response.put("success", true);
-                response.put("data", imageBase64);
-                response.put("fileName", fileName);
-            } else {
-                response.put("success", false);
-                response.put("message", "图片不存在或无法加载");
+            return ossService.getFileListFingerprint();
+        } catch (Exception e) {
+            logger.warn("获取文件列表指纹失败，跳过条件请求: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 由变更指纹和影响响应内容的参数生成弱ETag（内容语义相同，不保证逐字节一致）
+     */
+    private String buildEtag(ChangeFingerprint fingerprint, Object... parameters) {
+        if (fingerprint == null) {
+            return null;
+        }
+        StringBuilder source = new StringBuilder(fingerprint.getValue());
+        for (Object parameter : parameters) {
+            source.append('|').append(parameter);
+        }
+        return "W/\"" + DigestUtils.md5DigestAsHex(source.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * 判断If-None-Match是否命中（弱比较，支持多个ETag和*）
+     */
+    private boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || stripWeak(value).equals(opaque)) {
+                return true;
             }
+        }
+        return false;
+    }
 
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "获取图片失败: " + e.getMessage());
-            logger.error("获取图片失败 {}: {}", fileName, e.getMessage());
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
 
-            return ResponseEntity.status(500).body(response);
+    private <T> ResponseEntity<T> notModified(String etag, ChangeFingerprint fingerprint) {
+        return withValidators(ResponseEntity.status(HttpStatus.NOT_MODIFIED), etag, fingerprint).build();
+    }
+
+    /**
+     * 附加ETag、Last-Modified；no-cache允许浏览器缓存，但每次使用前都要带If-None-Match回源验证
+     */
+    private ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder builder, String etag,
+                                                      ChangeFingerprint fingerprint) {
+        if (etag == null) {
+            return builder;
+        }
+        // 同一URL可协商JSON或CBOR，缓存需按Accept区分
+        builder.eTag(etag).cacheControl(CacheControl.noCache().cachePrivate()).varyBy("Accept");
+        if (fingerprint.getLastModified() != null) {
+            builder.lastModified(fingerprint.getLastModified());
         }
+        return builder;
     }
 
     /**
-     * 获取文本文件完整内容
+     * 获取图片完整内容
      */
-    @GetMapping("/oss/text/{fileName}")
-    public ResponseEntity<Map<String, Object>> getFullText(@PathVariable String fileName) {
-        Map<String, Object> response = new HashMap<>();
-        try {
-            // 检查是否为CSV文件
-            if (fileName.toLowerCase().endsWith(".csv")) {
-                // 返回CSV解析结果
-                Map<String, Object> csvResult = ossService.getCsvContent(fileName);
-                return ResponseEntity.ok(csvResult);
-            } else {
-                // 处理普通文本文件
-                String textContent = ossService.getTextFullContent(fileName);
-                if (textContent != null) {
+    @GetMapping("/oss/image/{fileName}")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getFullImage(@PathVariable String fileName) {
+        return CompletableFuture.supplyAsync(() -> {
+            Map<String, Object> response = new HashMap<>();
+            try {
+                String imageBase64 = ossService.getImageFullBase64(fileName);
+                if (imageBase64 != null) {
                     response.put("success", true);
-                    response.put("data", textContent);
+                    response.put("data", imageBase64);
                     response.put("fileName", fileName);
-                    response.put("fileType", "text");
                 } else {
                     response.put("success", false);
-                    response.put("message", "文本文件不存在或无法加载");
+                    response.put("message", "图片不存在或无法加载");
                 }
+
+                return ResponseEntity.ok(response);
+            } catch (Exception e) {
+                response.put("success", false);
+                response.put("message", "获取图片失败: " + e.getMessage());
+                logger.error("获取图片失败 {}: {}", fileName, e.getMessage());
+
+                return ResponseEntity.status(500).body(response);
             }
+        }, imageExecutor);
+    }
 
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "获取文本文件失败: " + e.getMessage());
-            logger.error("获取文本文件失败 {}: {}", fileName, e.getMessage());
+    /**
+     * 获取文本文件完整内容
+     */
+    @GetMapping("/oss/text/{fileName}")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getFullText(@PathVariable String fileName) {
+        return CompletableFuture.supplyAsync(() -> {
+            Map<String, Object> response = new HashMap<>();
+            try {
+                // 检查是否为CSV文件
+                if (fileName.toLowerCase().endsWith(".csv")) {
+                    // 返回CSV解析结果
+                    Map<String, Object> csvResult = ossService.getCsvContent(
+                            fileName, 0, ossService.getOssConfig().getCsvPageSize());
+                    return ResponseEntity.ok(csvResult);
+                } else {
+                    // 处理普通文本文件
+                    String textContent = ossService.getTextFullContent(fileName);
+                    if (textContent != null) {
+                        response.put("success", true);
+                        response.put("data", textContent);
+                        response.put("fileName", fileName);
+                        response.put("fileType", "text");
+                    } else {
+                        response.put("success", false);
+                        response.put("message", "文本文件不存在或无法加载");
+                    }
+                }
 
-            return ResponseEntity.status(500).body(response);
-        }
+                return ResponseEntity.ok(response);
+            } catch (Exception e) {
+                response.put("success", false);
+                response.put("message", "获取文本文件失败: " + e.getMessage());
+                logger.error("获取文本文件失败 {}: {}", fileName, e.getMessage());
+
+                return ResponseEntity.status(500).body(response);
+            }
+        }, ossIoExecutor);
     }
 
     /**
-     * 专门获取CSV文件内容的API端点
+     * 专门获取CSV文件内容的API端点（按offset/limit分页）
      */
     @GetMapping("/oss/csv/{fileName}")
-    public ResponseEntity<Map<String, Object>> getCsvContent(@PathVariable String fileName) {
-        try {
-            Map<String, Object> csvResult = ossService.getCsvContent(fileName);
-            return ResponseEntity.ok(csvResult);
-        } catch (Exception e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("message", "获取CSV文件失败: " + e.getMessage());
-            logger.error("获取CSV文件失败 {}: {}", fileName, e.getMessage());
-            return ResponseEntity.status(500).body(response);
-        }
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getCsvContent(
+            @PathVariable String fileName,
+            @RequestParam(defaultValue = "0") long offset,
+            @RequestParam(required = false) Integer limit) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                int pageSize = limit != null ? limit : ossService.getOssConfig().getCsvPageSize();
+                Map<String, Object> csvResult = ossService.getCsvContent(fileName, offset, pageSize);
+                return ResponseEntity.ok(csvResult);
+            } catch (Exception e) {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", false);
+                response.put("message", "获取CSV文件失败: " + e.getMessage());
+                logger.error("获取CSV文件失败 {}: {}", fileName, e.getMessage());
+                return ResponseEntity.status(500).body(response);
+            }
+        }, ossIoExecutor);
     }
 
     /**
      * 异步获取图片缩略图
      */
     @GetMapping("/oss/thumbnail/{fileName}")
-    public ResponseEntity<Map<String, Object>> getThumbnail(@PathVariable String fileName) {
-        Map<String, Object> response = new HashMap<>();
-        try {
-            String thumbnail = ossService.getImageThumbnailBase64(fileName);
-            if (thumbnail != null) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getThumbnail(
+            @PathVariable String fileName,
+            @RequestParam(defaultValue = "0") int w,
+            @RequestParam(defaultValue = "viewport") String priority) {
+        return CompletableFuture.supplyAsync(() -> {
+            Map<String, Object> response = new HashMap<>();
+            try {
+                String thumbnail = ossService.getImageThumbnailBase64(
+                        fileName, w, ThumbnailWorkerPool.Priority.fromParam(priority));
+                if (thumbnail != null) {
+                    response.put("success", true);
+                    response.put("data", thumbnail);
+                    response.put("fileName", fileName);
+                } else {
+                    response.put("success", false);
+                    response.put("message", "缩略图生成失败");
+                }
+
+                return ResponseEntity.ok(response);
+            } catch (Exception e) {
+                response.put("success", false);
+                response.put("message", "获取缩略图失败: " + e.getMessage());
+                logger.error("获取缩略图失败 {}: {}", fileName, e.getMessage());
+
+                return ResponseEntity.status(500).body(response);
+            }
+        }, imageExecutor);
+    }
+
+    /**
+     * 直接返回最接近指定宽度的缩略图图片（供<img src>使用，可被浏览器缓存）
+     */
+    @GetMapping("/oss/thumbnail/{fileName}/raw")
+    public CompletableFuture<ResponseEntity<byte[]>> getThumbnailImage(
+            @PathVariable String fileName,
+            @RequestParam(defaultValue = "0") int w) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                byte[] thumbnail = ossService.getImageThumbnail(fileName, w, ThumbnailWorkerPool.Priority.VIEWPORT);
+                if (thumbnail == null) {
+                    return ResponseEntity.notFound().build();
+                }
+                return ResponseEntity.ok()
+                        .header("Content-Type", ossService.getThumbnailContentType())
+                        .header("Cache-Control", "private, max-age=300")
+                        .body(thumbnail);
+            } catch (Exception e) {
+                logger.error("获取缩略图图片失败 {}: {}", fileName, e.getMessage());
+                return ResponseEntity.status(500).build();
+            }
+        }, imageExecutor);
+    }
+
+    /**
+     * 异步获取文本预览
+     */
+    @GetMapping("/oss/preview/{fileName}")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getTextPreview(@PathVariable String fileName) {
+        return CompletableFuture.supplyAsync(() -> {
+            Map<String, Object> response = new HashMap<>();
+            try {
+                String preview = ossService.getTextPreview(fileName);
                 response.put("success", true);
-                response.put("data", thumbnail);
+                response.put("data", preview);
                 response.put("fileName", fileName);
-            } else {
+
+                return ResponseEntity.ok(response);
+            } catch (Exception e) {
                 response.put("success", false);
-                response.put("message", "缩略图生成失败");
+                response.put("message", "获取文本预览失败: " + e.getMessage());
+                logger.error("获取文本预览失败 {}: {}", fileName, e.getMessage());
+
+                return ResponseEntity.status(500).body(response);
             }
+        }, ossIoExecutor);
+    }
 
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "获取缩略图失败: " + e.getMessage());
-            logger.error("获取缩略图失败 {}: {}", fileName, e.getMessage());
+    /**
+     * 批量获取一页附件的缩略图和文本预览
+     * 请求体: {"images": [...], "texts": [...]}
+     * priority=prefetch 表示视口外的预取，缩略图排在视口内请求之后生成
+     * 响应为NDJSON流，每行一个结果，按完成先后顺序输出
+     */
+    @PostMapping("/oss/batch-preview")
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> batchPreview(
+            @RequestBody Map<String, List<String>> request,
+            @RequestParam(defaultValue = "viewport") String priority) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<String> images = request.getOrDefault("images", new ArrayList<>());
+            List<String> texts = request.getOrDefault("texts", new ArrayList<>());
 
-            return ResponseEntity.status(500).body(response);
-        }
+            int maxItems = ossService.getOssConfig().getBatchMaxItems();
+            if (images.size() + texts.size() > maxItems) {
+                logger.warn("批量预览请求过大: {} 个文件，上限 {}", images.size() + texts.size(), maxItems);
+                return ResponseEntity.badRequest().build();
+            }
+
+            StreamingResponseBody body = outputStream ->
+                    ossService.batchLoadPreviews(images, texts, ThumbnailWorkerPool.Priority.fromParam(priority),
+                            item -> writeNdjsonLine(outputStream, item));
+
+            return ResponseEntity.ok()
+                    .contentType(NDJSON)
+                    .header("Cache-Control", "no-cache")
+                    .header("X-Accel-Buffering", "no")
+                    .body(body);
+        }, ossIoExecutor);
     }
 
     /**
-     * 异步获取文本预览
+     * 打包下载一组附件
+     * 请求体: {"images": [...], "texts": [...]}，可用于任意筛选结果
      */
-    @GetMapping("/oss/preview/{fileName}")
-    public ResponseEntity<Map<String, Object>> getTextPreview(@PathVariable String fileName) {
+    @PostMapping("/oss/download/zip")
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> downloadAttachmentsZip(@RequestBody Map<String, List<String>> request) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<String> images = request.getOrDefault("images", new ArrayList<>());
+            List<String> texts = request.getOrDefault("texts", new ArrayList<>());
+            return streamAttachmentsZip(images, texts, "attachments.zip");
+        }, ossIoExecutor);
+    }
+
+    /**
+     * 上传附件到图片桶（type=image）或文本桶（type=text）
+     */
+    @PostMapping("/oss/upload/{type}")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> uploadAttachment(
+            @PathVariable String type,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String fileName) {
+        return CompletableFuture.supplyAsync(() -> {
+            String targetName = (fileName != null && !fileName.isBlank()) ? fileName : file.getOriginalFilename();
+            return handleUpload(type, targetName, () -> ossService.uploadObject(uploadBucket(type), targetName, file));
+        }, ossIoExecutor);
+    }
+
+    /**
+     * 继续上一次失败的大文件上传
+     */
+    @PostMapping("/oss/upload/{type}/resume")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> resumeUpload(
+            @PathVariable String type,
+            @RequestParam String fileName) {
+        return CompletableFuture.supplyAsync(() -> {
+            return handleUpload(type, fileName, () -> ossService.resumeUpload(uploadBucket(type), fileName));
+        }, ossIoExecutor);
+    }
+
+    /**
+     * 上传处理
+     */
+    @FunctionalInterface
+    private interface UploadAction {
+        Map<String, Object> run() throws IOException;
+    }
+
+    private ResponseEntity<Map<String, Object>> handleUpload(String type, String fileName, UploadAction action) {
         Map<String, Object> response = new HashMap<>();
         try {
-            String preview = ossService.getTextPreview(fileName);
+            response.putAll(action.run());
             response.put("success", true);
-            response.put("data", preview);
-            response.put("fileName", fileName);
-
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (CircuitBreaker.OpenException e) {
+            response.put("success", false);
+            response.put("message", "文件服务暂时不可用，请稍后重试");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
         } catch (Exception e) {
+            logger.error("上传文件失败 {}/{}: {}", type, fileName, e.getMessage());
             response.put("success", false);
-            response.put("message", "获取文本预览失败: " + e.getMessage());
-            logger.error("获取文本预览失败 {}: {}", fileName, e.getMessage());
-
+            response.put("message", "上传失败: " + e.getMessage());
             return ResponseEntity.status(500).body(response);
         }
     }
 
+    private String uploadBucket(String type) {
+        switch (type) {
+            case "image":
+                return ossService.getOssConfig().getImageBucketName();
+            case "text":
+                return ossService.getOssConfig().getTextBucketName();
+            default:
+                throw new IllegalArgumentException("不支持的上传类型: " + type);
+        }
+    }
+
     /**
-     * 下载图片文件
+     * 打包下载表格某一页匹配到的全部附件
      */
-    @GetMapping("/oss/download/image/{fileName}")
-    public ResponseEntity<byte[]> downloadImage(@PathVariable String fileName) {
-        try {
-            byte[] imageData = ossService.downloadImageFile(fileName);
-            if (imageData != null) {
-                return ResponseEntity.ok()
-                        .header("Content-Disposition", "attachment; filename=\"" + fileName + "\"")
-                        .header("Content-Type", "application/octet-stream")
-                        .body(imageData);
-            } else {
-                return ResponseEntity.notFound().build();
+    @GetMapping("/databases/{databaseName}/tables/{tableName}/download/attachments")
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> downloadPageAttachments(
+            @PathVariable String databaseName,
+            @PathVariable String tableName,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "0") int offset) {
+        // 先按打包上限收紧行数，避免为注定被拒绝的请求查询大量数据
+        int pageSize = Math.max(1, Math.min(limit, ossService.getOssConfig().getZipMaxItems()));
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                Map<String, Object> tableData = databaseService.getTableData(databaseName, tableName, pageSize, offset);
+                @SuppressWarnings("unchecked")
+                List<String> columns = (List<String>) tableData.get("columns");
+                @SuppressWarnings("unchecked")
+                List<List<Object>> rows = (List<List<Object>>) tableData.get("data");
+                // 图片和文本文件是getTableData追加在最后的两列，按位置取，避免与同名的数据库列混淆
+                int imageIndex = columns.size() - 2;
+                int textIndex = columns.size() - 1;
+
+                List<String> images = new ArrayList<>();
+                List<String> texts = new ArrayList<>();
+                for (List<Object> row : rows) {
+                    addAttachmentFileName(row.get(imageIndex), images);
+                    addAttachmentFileName(row.get(textIndex), texts);
+                }
+
+                String fileName = String.format("%s_%s_attachments_%d.zip", databaseName, tableName, offset / pageSize + 1);
+                return streamAttachmentsZip(images, texts, fileName);
+            } catch (Exception e) {
+                logger.error("打包下载附件失败 {}.{}: {}", databaseName, tableName, e.getMessage());
+                return ResponseEntity.status(500).build();
             }
-        } catch (Exception e) {
-            logger.error("下载图片文件失败 {}: {}", fileName, e.getMessage());
-            return ResponseEntity.status(500).build();
+        }, dbExecutor);
+    }
+
+    private void addAttachmentFileName(Object cell, List<String> fileNames) {
+        if (cell instanceof Map<?, ?> info && Boolean.TRUE.equals(info.get("exists"))) {
+            fileNames.add((String) info.get("fileName"));
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamAttachmentsZip(List<String> images, List<String> texts,
+                                                                       String fileName) {
+        int maxItems = ossService.getOssConfig().getZipMaxItems();
+        if (images.size() + texts.size() > maxItems) {
+            logger.warn("打包下载请求过大: {} 个文件，上限 {}", images.size() + texts.size(), maxItems);
+            return ResponseEntity.badRequest().build();
         }
+
+        StreamingResponseBody body = outputStream -> ossService.writeAttachmentsZip(images, texts, outputStream);
+
+        return ResponseEntity.ok()
+                .header("Content-Disposition",
+                        ContentDisposition.attachment().filename(fileName, StandardCharsets.UTF_8).build().toString())
+                .header("Content-Type", "application/zip")
+                .header("X-Accel-Buffering", "no")
+                .body(body);
+    }
+
+    /**
+     * 写出一行NDJSON并立即刷新，让客户端尽早渲染
+     */
+    private void writeNdjsonLine(OutputStream outputStream, Map<String, Object> item) throws IOException {
+        outputStream.write(objectMapper.writeValueAsBytes(item));
+        outputStream.write('\n');
+        outputStream.flush();
+    }
+
+    /**
+     * 下载图片文件（流式输出，支持Range断点续传）
+     */
+    @GetMapping("/oss/download/image/{fileName}")
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> downloadImage(
+            @PathVariable String fileName,
+            @RequestHeader(value = "Range", required = false) String rangeHeader,
+            @RequestHeader(value = "If-Range", required = false) String ifRangeHeader) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return streamDownload(ossService.getOssConfig().getImageBucketName(), fileName, rangeHeader, ifRangeHeader);
+            } catch (CircuitBreaker.OpenException e) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            } catch (Exception e) {
+                logger.error("下载图片文件失败 {}: {}", fileName, e.getMessage());
+                return ResponseEntity.status(500).build();
+            }
+        }, ossIoExecutor);
     }
 
     /**
-     * 下载文本文件
+     * 下载文本文件（流式输出，支持Range断点续传）
      */
     @GetMapping("/oss/download/text/{fileName}")
-    public ResponseEntity<byte[]> downloadText(@PathVariable String fileName) {
-        try {
-            byte[] textData = ossService.downloadTextFile(fileName);
-            if (textData != null) {
-                return ResponseEntity.ok()
-                        .header("Content-Disposition", "attachment; filename=\"" + fileName + "\"")
-                        .header("Content-Type", "application/octet-stream")
-                        .body(textData);
-            } else {
-                return ResponseEntity.notFound().build();
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> downloadText(
+            @PathVariable String fileName,
+            @RequestHeader(value = "Range", required = false) String rangeHeader,
+            @RequestHeader(value = "If-Range", required = false) String ifRangeHeader) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return streamDownload(ossService.getOssConfig().getTextBucketName(), fileName, rangeHeader, ifRangeHeader);
+            } catch (CircuitBreaker.OpenException e) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            } catch (Exception e) {
+                logger.error("下载文本文件失败 {}: {}", fileName, e.getMessage());
+                return ResponseEntity.status(500).build();
             }
-        } catch (Exception e) {
-            logger.error("下载文本文件失败 {}: {}", fileName, e.getMessage());
-            return ResponseEntity.status(500).build();
+        }, ossIoExecutor);
+    }
+
+    /**
+     * 构建流式下载响应
+     * Content-Length取自对象元数据；单个Range区间直接转成OSS的区间GET，
+     * If-Range与当前ETag/修改时间不一致或请求多个区间时返回完整内容
+     */
+    private ResponseEntity<StreamingResponseBody> streamDownload(String bucketName, String fileName,
+                                                                 String rangeHeader, String ifRangeHeader) {
+        ObjectMetadata metadata = ossService.getObjectMetadata(bucketName, fileName);
+        if (metadata == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        long size = metadata.getContentLength();
+        String etag = "\"" + metadata.getETag().replace("\"", "") + "\"";
+        Date lastModified = metadata.getLastModified();
+
+        HttpRange range = null;
+        if (rangeHeader != null && ifRangeMatches(ifRangeHeader, etag, lastModified)) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                if (ranges.size() == 1) {
+                    range = ranges.get(0);
+                }
+            } catch (IllegalArgumentException e) {
+                logger.debug("忽略无效的Range请求头: {}", rangeHeader);
+            }
+        }
+
+        ResponseEntity.BodyBuilder builder;
+        long start = 0;
+        long end = size - 1;
+        if (range != null) {
+            try {
+                start = range.getRangeStart(size);
+                end = range.getRangeEnd(size);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header("Content-Range", "bytes */" + size)
+                        .build();
+            }
+            builder = ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                    .header("Content-Range", "bytes " + start + "-" + end + "/" + size);
+        } else {
+            builder = ResponseEntity.ok();
+        }
+
+        // 总是传入明确的结束位置，大对象才能按分段并行拉取；各分段限定为HEAD时的版本
+        long rangeStart = start;
+        long rangeEnd = end;
+        StreamingResponseBody body = outputStream ->
+                ossService.streamObject(bucketName, fileName, metadata.getETag(), rangeStart, rangeEnd, outputStream);
+
+        return builder
+                .header("Content-Disposition", "attachment; filename=\"" + fileName + "\"")
+                .header("Content-Type", "application/octet-stream")
+                .header("Accept-Ranges", "bytes")
+                .eTag(etag)
+                .lastModified(lastModified.getTime())
+                .contentLength(size == 0 ? 0 : end - start + 1)
+                .body(body);
+    }
+
+    /**
+     * 判断If-Range条件是否成立（未携带时视为成立）
+     */
+    private boolean ifRangeMatches(String ifRangeHeader, String etag, Date lastModified) {
+        if (ifRangeHeader == null) {
+            return true;
+        }
+        String value = ifRangeHeader.trim();
+        if (value.startsWith("\"") || value.startsWith("W/")) {
+            // 弱ETag不能用于Range
+            return value.equals(etag);
+        }
+        try {
+            long since = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return lastModified.getTime() / 1000 == since / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
         }
     }
 
@@ -329,36 +906,80 @@ public class ApiController {
      * 下载完整表数据为CSV格式
      */
     @GetMapping("/databases/{databaseName}/tables/{tableName}/download/csv")
-    public ResponseEntity<byte[]> downloadTableDataAsCsv(
+    public CompletableFuture<ResponseEntity<byte[]>> downloadTableDataAsCsv(
             @PathVariable String databaseName,
             @PathVariable String tableName,
             @RequestParam(defaultValue = "false") boolean fullData) {
-        try {
-            String csvContent;
-            String fileName;
-
-            if (fullData) {
-                // 获取完整表数据
-                csvContent = databaseService.exportTableDataToCsv(databaseName, tableName);
-                fileName = String.format("%s_%s_complete_data.csv", databaseName, tableName);
-            } else {
-                // 获取当前页面数据（默认100条）
-                Map<String, Object> tableData = databaseService.getTableData(databaseName, tableName, 100);
-                csvContent = convertTableDataToCsv(tableData);
-                fileName = String.format("%s_%s_current_page.csv", databaseName, tableName);
-            }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                String csvContent;
+                String fileName;
+
+                if (fullData) {
+                    // 获取完整表数据
+                    csvContent = databaseService.exportTableDataToCsv(databaseName, tableName);
+                    fileName = String.format("%s_%s_complete_data.csv", databaseName, tableName);
+                } else {
+                    // 获取当前页面数据（默认100条）
+                    Map<String, Object> tableData = databaseService.getTableData(databaseName, tableName, 100);
+                    csvContent = convertTableDataToCsv(tableData);
+                    fileName = String.format("%s_%s_current_page.csv", databaseName, tableName);
+                }
 
-            byte[] csvBytes = csvContent.getBytes("UTF-8");
+                byte[] csvBytes = csvContent.getBytes("UTF-8");
 
+                return ResponseEntity.ok()
+                        .header("Content-Disposition", "attachment; filename=\"" + fileName + "\"")
+                        .header("Content-Type", "text/csv; charset=utf-8")
+                        .body(csvBytes);
+
+            } catch (Exception e) {
+                logger.error("下载表数据失败 {}.{}: {}", databaseName, tableName, e.getMessage());
+                return ResponseEntity.status(500).build();
+            }
+        }, dbExecutor);
+    }
+
+    /**
+     * 以CBOR格式流式导出完整表数据（Accept: application/cbor）
+     */
+    @GetMapping(value = "/databases/{databaseName}/tables/{tableName}/export", produces = MediaType.APPLICATION_CBOR_VALUE)
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> exportTableDataAsCbor(
+            @PathVariable String databaseName,
+            @PathVariable String tableName) {
+        return CompletableFuture.supplyAsync(() -> {
+            String fileName = String.format("%s_%s_complete_data.cbor", databaseName, tableName);
+            StreamingResponseBody body = outputStream ->
+                    databaseService.exportTableDataCbor(databaseName, tableName, outputStream);
             return ResponseEntity.ok()
                     .header("Content-Disposition", "attachment; filename=\"" + fileName + "\"")
-                    .header("Content-Type", "text/csv; charset=utf-8")
-                    .body(csvBytes);
+                    .contentType(MediaType.APPLICATION_CBOR)
+                    .body(body);
+        }, dbExecutor);
+    }
 
-        } catch (Exception e) {
-            logger.error("下载表数据失败 {}.{}: {}", databaseName, tableName, e.getMessage());
-            return ResponseEntity.status(500).build();
-        }
+    /**
+     * 把完整表数据导出到OSS，返回限时分享链接
+     */
+    @PostMapping("/databases/{databaseName}/tables/{tableName}/export/oss")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> exportTableDataToOss(
+            @PathVariable String databaseName,
+            @PathVariable String tableName,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return CompletableFuture.supplyAsync(() -> {
+            Map<String, Object> response = new HashMap<>();
+            try {
+                Map<String, Object> result = databaseService.exportTableDataToOss(databaseName, tableName, gzip);
+                response.put("success", true);
+                response.putAll(result);
+                return ResponseEntity.ok(response);
+            } catch (Exception e) {
+                logger.error("导出表数据到OSS失败 {}.{}: {}", databaseName, tableName, e.getMessage());
+                response.put("success", false);
+                response.put("message", "导出失败: " + e.getMessage());
+                return ResponseEntity.status(500).body(response);
+            }
+        }, dbExecutor);
     }
 
     /**
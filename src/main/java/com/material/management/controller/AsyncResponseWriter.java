@@ -0,0 +1,223 @@
+package com.material.management.controller;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Flow;
+
+/**
+ * Servlet非阻塞写出
+ * 数据先进入待写队列，只在输出流isReady时写出，写不动时由容器回调onWritePossible继续，
+ * 全程不阻塞线程；待写数据低于上限时才通知生产方继续（转发OSS响应时即向上游请求下一块），
+ * 客户端读得慢时上游读取随之暂停，形成端到端的背压。
+ * WriteListener在第一次写出或结束时才注册：调用方此前设置的状态码和响应头都会生效，
+ * 不会因为容器提前回调onWritePossible而提交一个空的200响应
+ *
+ * @author Material Management System
+ * @version 1.0.0
+ */
+public class AsyncResponseWriter implements WriteListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncResponseWriter.class);
+
+    private final AsyncContext asyncContext;
+    private final int maxBufferedBytes;
+
+    private final Queue<byte[]> pending = new ArrayDeque<>();
+    private final List<Runnable> drainListeners = new ArrayList<>();
+    private ServletOutputStream outputStream;
+    private long bufferedBytes;
+    private long writtenBytes;
+    private boolean closing;
+    private boolean finished;
+    private Flow.Subscription subscription;
+
+    public AsyncResponseWriter(AsyncContext asyncContext, int maxBufferedBytes) {
+        this.asyncContext = asyncContext;
+        this.maxBufferedBytes = maxBufferedBytes;
+    }
+
+    /**
+     * 加入待写队列并尽量写出（可在任意线程调用）
+     */
+    public void write(byte[] data) {
+        synchronized (this) {
+            if (finished || closing) {
+                return;
+            }
+            pending.add(data);
+            bufferedBytes += data.length;
+        }
+        flush();
+    }
+
+    /**
+     * 待写数据全部写出后结束响应
+     */
+    public void close() {
+        synchronized (this) {
+            if (finished) {
+                return;
+            }
+            closing = true;
+        }
+        flush();
+    }
+
+    /**
+     * 待写数据低于上限时执行一次回调（已低于上限时立即执行）
+     */
+    public void whenWritable(Runnable listener) {
+        synchronized (this) {
+            if (!finished && bufferedBytes >= maxBufferedBytes) {
+                drainListeners.add(listener);
+                return;
+            }
+        }
+        listener.run();
+    }
+
+    public synchronized boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * 以背压方式转发上游数据：每块写出到队列低于上限后才请求下一块
+     */
+    public Flow.Subscriber<List<ByteBuffer>> subscriber() {
+        return new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription upstream) {
+                synchronized (AsyncResponseWriter.this) {
+                    subscription = upstream;
+                    if (finished) {
+                        upstream.cancel();
+                        return;
+                    }
+                }
+                upstream.request(1);
+            }
+
+            @Override
+            public void onNext(List<ByteBuffer> buffers) {
+                for (ByteBuffer buffer : buffers) {
+                    byte[] data = new byte[buffer.remaining()];
+                    buffer.get(data);
+                    write(data);
+                }
+                whenWritable(() -> subscription.request(1));
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                logger.debug("上游读取失败: {}", error.getMessage());
+                abort();
+            }
+
+            @Override
+            public void onComplete() {
+                close();
+            }
+        };
+    }
+
+    /**
+     * 出错时结束响应（已写出的部分无法撤回，客户端会看到不完整的响应）
+     */
+    public void abort() {
+        Flow.Subscription upstream;
+        synchronized (this) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            pending.clear();
+            drainListeners.clear();
+            upstream = subscription;
+        }
+        if (upstream != null) {
+            upstream.cancel();
+        }
+        completeQuietly();
+    }
+
+    @Override
+    public void onWritePossible() {
+        flush();
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        logger.debug("客户端连接已断开: {}", error.getMessage());
+        abort();
+    }
+
+    private void flush() {
+        List<Runnable> listeners = null;
+        boolean complete = false;
+        boolean failed = false;
+        synchronized (this) {
+            if (finished) {
+                return;
+            }
+            try {
+                if (outputStream == null) {
+                    // 状态码和响应头此时已由调用方设置好
+                    outputStream = asyncContext.getResponse().getOutputStream();
+                    outputStream.setWriteListener(this);
+                }
+                while (!pending.isEmpty() && outputStream.isReady()) {
+                    byte[] data = pending.poll();
+                    bufferedBytes -= data.length;
+                    writtenBytes += data.length;
+                    outputStream.write(data);
+                }
+                if (pending.isEmpty() && writtenBytes > 0 && outputStream.isReady()) {
+                    // 让NDJSON等逐行输出的内容尽快到达客户端
+                    outputStream.flush();
+                }
+            } catch (IOException e) {
+                logger.debug("写出响应失败: {}", e.getMessage());
+                failed = true;
+            }
+            if (!failed && bufferedBytes < maxBufferedBytes && !drainListeners.isEmpty()) {
+                listeners = new ArrayList<>(drainListeners);
+                drainListeners.clear();
+            }
+            if (!failed && closing && pending.isEmpty()) {
+                finished = true;
+                complete = true;
+            }
+        }
+
+        if (failed) {
+            // 取消上游并结束响应
+            abort();
+            return;
+        }
+        if (complete) {
+            completeQuietly();
+            return;
+        }
+        if (listeners != null) {
+            listeners.forEach(Runnable::run);
+        }
+    }
+
+    private void completeQuietly() {
+        try {
+            asyncContext.complete();
+        } catch (IllegalStateException e) {
+            logger.debug("异步请求已结束: {}", e.getMessage());
+        }
+    }
+}
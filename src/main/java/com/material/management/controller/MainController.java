@@ -10,10 +10,8 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
-import java.util.Map;
 
 /**
  * 主控制器
@@ -64,14 +62,14 @@ public class MainController {
     @GetMapping("/database/{databaseName}")
     public String databaseDetail(@PathVariable String databaseName, Model model) {
         try {
-            // 获取数据库统计信息
-            DatabaseInfo dbInfo = databaseService.getDatabaseStatistics(databaseName);
-            model.addAttribute("databaseInfo", dbInfo);
-            
             // 获取表列表
             List<TableInfo> tables = databaseService.getTables(databaseName);
             model.addAttribute("tables", tables);
             model.addAttribute("databaseName", databaseName);
+
+            // 获取数据库统计信息（表列表已加载，直接由注册表汇总）
+            DatabaseInfo dbInfo = databaseService.getDatabaseStatistics(databaseName);
+            model.addAttribute("databaseInfo", dbInfo);
             
             logger.info("数据库 {} 详情页加载成功，包含 {} 个表", databaseName, tables.size());
         } catch (Exception e) {
@@ -84,38 +82,29 @@ public class MainController {
 
     /**
      * 表数据页面
+     * 只渲染页面框架和表信息，行数据由前端虚拟滚动表格按窗口从 /api/.../data 分批获取
      */
     @GetMapping("/database/{databaseName}/table/{tableName}")
     public String tableData(
             @PathVariable String databaseName,
             @PathVariable String tableName,
-            @RequestParam(defaultValue = "100") int limit,
             Model model) {
+        model.addAttribute("databaseName", databaseName);
+        model.addAttribute("tableName", tableName);
         try {
-            // 限制最大查询数量
-            if (limit > 100000) {
-                limit = 100000;
-            }
-            
-            // 获取表数据
-            Map<String, Object> tableData = databaseService.getTableData(databaseName, tableName, limit);
-            model.addAttribute("tableData", tableData);
-            model.addAttribute("databaseName", databaseName);
-            model.addAttribute("tableName", tableName);
-            model.addAttribute("limit", limit);
-            
-            // 获取表信息
-            List<TableInfo> tables = databaseService.getTables(databaseName);
-            TableInfo currentTable = tables.stream()
-                    .filter(t -> t.getName().equals(tableName))
-                    .findFirst()
-                    .orElse(null);
+            // 只加载当前表的元数据
+            TableInfo currentTable = databaseService.getTable(databaseName, tableName);
             model.addAttribute("tableInfo", currentTable);
-            
-            logger.info("表数据页 {}.{} 加载成功，显示 {} 条记录", 
-                       databaseName, tableName, tableData.get("totalRows"));
+
+            if (currentTable == null) {
+                model.addAttribute("errorMessage", "表不存在: " + tableName);
+                logger.warn("表数据页 {}.{} 加载失败: 表不存在", databaseName, tableName);
+            } else {
+                logger.info("表数据页 {}.{} 加载成功，约 {} 条记录",
+                           databaseName, tableName, currentTable.getRowCount());
+            }
         } catch (Exception e) {
-            model.addAttribute("errorMessage", "获取表数据失败: " + e.getMessage());
+            model.addAttribute("errorMessage", "获取表信息失败: " + e.getMessage());
             logger.error("表数据页 {}.{} 加载失败: {}", databaseName, tableName, e.getMessage());
         }
         
@@ -0,0 +1,532 @@
+package com.material.management.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.material.management.config.OssConfig;
+import com.material.management.service.OssService;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * OSS附件的非阻塞接口（/api/nb/*）
+ * 请求线程只负责发起：对象通过预签名地址由JDK异步HTTP客户端读取，响应头到达后在回调中设置状态，
+ * 响应体按块经AsyncResponseWriter非阻塞写出，客户端读得慢时暂停向OSS请求下一块。
+ * 等待OSS和等待客户端期间都不占用线程，少量回调线程即可支撑大量并发下载。
+ * <p>
+ * GET  /api/nb/download/{image|text}/{fileName}  下载（转发Range/If-Range）
+ * GET  /api/nb/thumbnail/{fileName}?w=            缩略图（内存未命中时由OSS图片处理生成）
+ * GET  /api/nb/preview/{fileName}                 文本预览
+ * POST /api/nb/batch-preview                      批量预览（NDJSON，按完成先后输出）
+ *
+ * @author Material Management System
+ * @version 1.0.0
+ */
+public class NonBlockingOssServlet extends HttpServlet {
+
+    private static final Logger logger = LoggerFactory.getLogger(NonBlockingOssServlet.class);
+
+    private static final int MAX_REQUEST_BODY_BYTES = 1024 * 1024;
+
+    private final OssService ossService;
+    private final ObjectMapper objectMapper;
+    private final OssConfig ossConfig;
+
+    private ExecutorService callbackExecutor;
+    private HttpClient httpClient;
+
+    public NonBlockingOssServlet(OssService ossService, ObjectMapper objectMapper) {
+        this.ossService = ossService;
+        this.objectMapper = objectMapper;
+        this.ossConfig = ossService.getOssConfig();
+    }
+
+    @Override
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        callbackExecutor = Executors.newFixedThreadPool(ossConfig.getNbThreads(), r -> {
+            Thread thread = new Thread(r, "oss-nb-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(ossConfig.getConnectionTimeoutMs()))
+            .executor(callbackExecutor)
+            .build();
+        logger.info("非阻塞OSS接口已启用: /api/nb/*, 回调线程数: {}", ossConfig.getNbThreads());
+    }
+
+    @Override
+    public void destroy() {
+        if (callbackExecutor != null) {
+            callbackExecutor.shutdownNow();
+        }
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String path = request.getPathInfo() != null ? request.getPathInfo() : "";
+        if (path.startsWith("/download/image/")) {
+            download(request, response, ossConfig.getImageBucketName(), path.substring("/download/image/".length()));
+        } else if (path.startsWith("/download/text/")) {
+            download(request, response, ossConfig.getTextBucketName(), path.substring("/download/text/".length()));
+        } else if (path.startsWith("/thumbnail/")) {
+            thumbnail(request, response, path.substring("/thumbnail/".length()));
+        } else if (path.startsWith("/preview/")) {
+            preview(request, response, path.substring("/preview/".length()));
+        } else {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String path = request.getPathInfo() != null ? request.getPathInfo() : "";
+        if (path.equals("/batch-preview")) {
+            batchPreview(request, response);
+        } else {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
+    /**
+     * 下载：转发OSS的状态码和长度/区间相关响应头，响应体按背压逐块转发
+     */
+    private void download(HttpServletRequest request, HttpServletResponse response,
+                          String bucketName, String fileName) throws IOException {
+        if (fileName.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!ossService.tryAcquireBucket(bucketName)) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+
+        HttpRequest.Builder builder = newRequest(ossService.presignGetUrl(bucketName, fileName).toString());
+        copyRequestHeader(request, builder, "Range");
+        copyRequestHeader(request, builder, "If-Range");
+
+        proxy(request, response, bucketName, builder.build(), () -> {
+            response.setContentType("application/octet-stream");
+            response.setHeader("Content-Disposition",
+                ContentDisposition.attachment().filename(fileName, StandardCharsets.UTF_8).build().toString());
+        });
+    }
+
+    /**
+     * 缩略图：内存命中直接写出，否则转发OSS图片处理的结果
+     */
+    private void thumbnail(HttpServletRequest request, HttpServletResponse response, String fileName) throws IOException {
+        int width = parseInt(request.getParameter("w"));
+        byte[] cached = ossService.getCachedThumbnail(fileName, width);
+        if (cached != null) {
+            response.setContentType(ossService.getThumbnailContentType());
+            response.setHeader("Cache-Control", "private, max-age=300");
+            response.setContentLength(cached.length);
+            AsyncResponseWriter writer = startAsync(request);
+            writer.write(cached);
+            writer.close();
+            return;
+        }
+        if (!ossService.tryAcquireBucket(ossConfig.getImageBucketName())) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+
+        HttpRequest ossRequest = newRequest(ossService.presignThumbnailUrl(fileName, width).toString()).build();
+        proxy(request, response, ossConfig.getImageBucketName(), ossRequest, () -> {
+            response.setContentType(ossService.getThumbnailContentType());
+            response.setHeader("Cache-Control", "private, max-age=300");
+        });
+    }
+
+    /**
+     * 文本预览（JSON格式与 /api/oss/preview 相同）
+     */
+    private void preview(HttpServletRequest request, HttpServletResponse response, String fileName) throws IOException {
+        // 只做快速检查，不占探测名额；真正访问OSS时由loadTextPreview取得名额
+        if (!ossService.isBucketAvailable(ossConfig.getTextBucketName())) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+
+        AsyncResponseWriter writer = startAsync(request);
+        response.setContentType("application/json;charset=UTF-8");
+        loadTextPreview(fileName).whenComplete((preview, error) -> {
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", error == null);
+            body.put("data", preview);
+            body.put("fileName", fileName);
+            writeJson(writer, body, false);
+            writer.close();
+        });
+    }
+
+    /**
+     * 批量预览：非阻塞读取请求体后并发加载，同时加载的文件数有上限，
+     * 待写出的结果超过上限时暂停发起新的加载
+     */
+    private void batchPreview(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        AsyncResponseWriter writer = startAsync(request);
+        readBody(request, writer, body -> {
+            List<String> images;
+            List<String> texts;
+            try {
+                Map<?, ?> json = objectMapper.readValue(body, Map.class);
+                images = stringList(json.get("images"));
+                texts = stringList(json.get("texts"));
+            } catch (IOException | ClassCastException e) {
+                failBeforeBody(response, writer, HttpServletResponse.SC_BAD_REQUEST);
+                return;
+            }
+            if (images.size() + texts.size() > ossConfig.getBatchMaxItems()) {
+                logger.warn("批量预览请求过大: {} 个文件，上限 {}", images.size() + texts.size(), ossConfig.getBatchMaxItems());
+                failBeforeBody(response, writer, HttpServletResponse.SC_BAD_REQUEST);
+                return;
+            }
+
+            response.setContentType("application/x-ndjson");
+            response.setHeader("Cache-Control", "no-cache");
+            response.setHeader("X-Accel-Buffering", "no");
+
+            Deque<BatchItem> items = new ArrayDeque<>();
+            for (String fileName : new LinkedHashSet<>(images)) {
+                items.add(new BatchItem("thumbnail", fileName));
+            }
+            for (String fileName : new LinkedHashSet<>(texts)) {
+                items.add(new BatchItem("preview", fileName));
+            }
+            new BatchRun(items, writer).launch();
+        });
+    }
+
+    /**
+     * 一次批量预览的调度状态
+     */
+    private class BatchRun {
+        private final Deque<BatchItem> queue;
+        private final AsyncResponseWriter writer;
+        private int running;
+        private int remaining;
+
+        BatchRun(Deque<BatchItem> queue, AsyncResponseWriter writer) {
+            this.queue = queue;
+            this.writer = writer;
+            this.remaining = queue.size();
+        }
+
+        void launch() {
+            List<BatchItem> started = new ArrayList<>();
+            synchronized (this) {
+                if (remaining == 0) {
+                    writer.close();
+                    return;
+                }
+                while (running < ossConfig.getNbBatchConcurrency() && !queue.isEmpty()) {
+                    started.add(queue.poll());
+                    running++;
+                }
+            }
+            for (BatchItem item : started) {
+                CompletableFuture<String> data = item.type.equals("thumbnail")
+                    ? loadThumbnailData(item.fileName) : loadTextPreview(item.fileName);
+                data.whenComplete((value, error) -> finish(item, value));
+            }
+        }
+
+        private void finish(BatchItem item, String data) {
+            if (writer.isFinished()) {
+                return;
+            }
+            writeJson(writer, ossService.buildPreviewItem(item.type, item.fileName, data), true);
+            boolean done;
+            synchronized (this) {
+                running--;
+                remaining--;
+                done = remaining == 0;
+            }
+            if (done) {
+                writer.close();
+            } else {
+                // 客户端读得慢时等待写出后再发起新的加载
+                writer.whenWritable(this::launch);
+            }
+        }
+    }
+
+    private static class BatchItem {
+        final String type;
+        final String fileName;
+
+        BatchItem(String type, String fileName) {
+            this.type = type;
+            this.fileName = fileName;
+        }
+    }
+
+    /**
+     * 加载缩略图的data URI：内存命中直接返回，否则读取OSS图片处理的结果
+     */
+    private CompletableFuture<String> loadThumbnailData(String fileName) {
+        byte[] cached = ossService.getCachedThumbnail(fileName, 0);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(ossService.toThumbnailDataUri(cached));
+        }
+        if (!ossService.tryAcquireBucket(ossConfig.getImageBucketName())) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        String bucketName = ossConfig.getImageBucketName();
+        HttpRequest request = newRequest(ossService.presignThumbnailUrl(fileName, 0).toString()).build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+            .thenApply(ossResponse -> {
+                ossService.recordBucketOutcome(bucketName, !isServerError(ossResponse.statusCode()));
+                return ossResponse.statusCode() == 200 ? ossService.toThumbnailDataUri(ossResponse.body()) : null;
+            })
+            .exceptionally(error -> {
+                logger.debug("非阻塞读取缩略图失败: {}, 错误: {}", fileName, error.getMessage());
+                ossService.recordBucketOutcome(bucketName, false);
+                return null;
+            });
+    }
+
+    /**
+     * 加载文本预览：缓存命中直接返回，否则按区间读取文件开头
+     */
+    private CompletableFuture<String> loadTextPreview(String fileName) {
+        String cached = ossService.getCachedTextPreview(fileName);
+        if (cached != null || ossService.isTextPreviewSkipped(fileName)) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        if (!ossService.tryAcquireBucket(ossConfig.getTextBucketName())) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        String bucketName = ossConfig.getTextBucketName();
+        HttpRequest request = newRequest(ossService.presignGetUrl(bucketName, fileName).toString())
+            .header("Range", "bytes=0-" + (ossService.getTextPreviewRangeLength() - 1))
+            .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+            .thenApply(ossResponse -> {
+                int status = ossResponse.statusCode();
+                ossService.recordBucketOutcome(bucketName, !isServerError(status));
+                if (status == 200 || status == 206) {
+                    return ossService.completeTextPreview(fileName, ossResponse.body());
+                }
+                logger.debug("非阻塞读取文本预览失败: {}, 状态码: {}", fileName, status);
+                return null;
+            })
+            .exceptionally(error -> {
+                logger.debug("非阻塞读取文本预览失败: {}, 错误: {}", fileName, error.getMessage());
+                ossService.recordBucketOutcome(bucketName, false);
+                ossService.recordTextPreviewFailure(fileName, error);
+                return null;
+            });
+    }
+
+    /**
+     * 把OSS响应转发给客户端：成功时回调onSuccess设置内容相关响应头，
+     * 404/416原样返回，其他错误返回502；连接失败和5xx计入桶的熔断器
+     */
+    private void proxy(HttpServletRequest request, HttpServletResponse response, String bucketName,
+                       HttpRequest ossRequest, Runnable onSuccess) throws IOException {
+        AsyncResponseWriter writer = startAsync(request);
+        AtomicBoolean responded = new AtomicBoolean();
+        httpClient.sendAsync(ossRequest, info -> {
+            int status = info.statusCode();
+            responded.set(true);
+            ossService.recordBucketOutcome(bucketName, !isServerError(status));
+            if (status == 200 || status == 206) {
+                response.setStatus(status);
+                onSuccess.run();
+                copyResponseHeader(info, response, "Content-Length");
+                copyResponseHeader(info, response, "Content-Range");
+                copyResponseHeader(info, response, "ETag");
+                copyResponseHeader(info, response, "Last-Modified");
+                response.setHeader("Accept-Ranges", "bytes");
+                return HttpResponse.BodySubscribers.fromSubscriber(writer.subscriber());
+            }
+
+            if (status == 416) {
+                copyResponseHeader(info, response, "Content-Range");
+            }
+            response.setStatus(status == 404 || status == 416 ? status : HttpServletResponse.SC_BAD_GATEWAY);
+            return HttpResponse.BodySubscribers.discarding();
+        }).whenComplete((ossResponse, error) -> {
+            if (error != null) {
+                logger.debug("非阻塞转发失败: {}", error.getMessage());
+                if (!responded.get()) {
+                    // 响应头到达后的失败多为客户端断开，不计入熔断器
+                    ossService.recordBucketOutcome(bucketName, false);
+                }
+                failBeforeBody(response, writer, HttpServletResponse.SC_BAD_GATEWAY);
+            } else {
+                writer.close();
+            }
+        });
+    }
+
+    private AsyncResponseWriter startAsync(HttpServletRequest request) throws IOException {
+        AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(ossConfig.getNbTimeoutMs());
+        AsyncResponseWriter writer = new AsyncResponseWriter(asyncContext, ossConfig.getNbMaxBufferedBytes());
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                logger.debug("非阻塞请求超时: {}", request.getRequestURI());
+                writer.abort();
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                writer.abort();
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        return writer;
+    }
+
+    /**
+     * 非阻塞读取请求体，读完后回调
+     */
+    private void readBody(HttpServletRequest request, AsyncResponseWriter writer, Consumer<byte[]> onComplete)
+            throws IOException {
+        ServletInputStream inputStream = request.getInputStream();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        inputStream.setReadListener(new ReadListener() {
+            private final byte[] buffer = new byte[8192];
+
+            @Override
+            public void onDataAvailable() throws IOException {
+                while (inputStream.isReady()) {
+                    int count = inputStream.read(buffer);
+                    if (count < 0) {
+                        break;
+                    }
+                    body.write(buffer, 0, count);
+                    if (body.size() > MAX_REQUEST_BODY_BYTES) {
+                        throw new IOException("请求体过大");
+                    }
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                onComplete.accept(body.toByteArray());
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                logger.debug("读取请求体失败: {}", error.getMessage());
+                writer.abort();
+            }
+        });
+    }
+
+    /**
+     * 响应体写出前失败：尚未提交时设置状态码，然后结束响应
+     */
+    private void failBeforeBody(HttpServletResponse response, AsyncResponseWriter writer, int status) {
+        if (!response.isCommitted()) {
+            response.setStatus(status);
+            writer.close();
+        } else {
+            writer.abort();
+        }
+    }
+
+    private void writeJson(AsyncResponseWriter writer, Map<String, Object> body, boolean newline) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            writer.write(json);
+            if (newline) {
+                writer.write(new byte[]{'\n'});
+            }
+        } catch (IOException e) {
+            logger.error("序列化响应失败: {}", e.getMessage());
+            writer.abort();
+        }
+    }
+
+    private HttpRequest.Builder newRequest(String url) {
+        try {
+            return HttpRequest.newBuilder(new URI(url))
+                .timeout(Duration.ofMillis(ossConfig.getSocketTimeoutMs()))
+                .GET();
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("无效的预签名地址: " + url, e);
+        }
+    }
+
+    private static void copyRequestHeader(HttpServletRequest request, HttpRequest.Builder builder, String name) {
+        String value = request.getHeader(name);
+        if (value != null) {
+            builder.header(name, value);
+        }
+    }
+
+    private static void copyResponseHeader(HttpResponse.ResponseInfo info, HttpServletResponse response, String name) {
+        info.headers().firstValue(name).ifPresent(value -> response.setHeader(name, value));
+    }
+
+    private static boolean isServerError(int status) {
+        return status >= 500;
+    }
+
+    private static List<String> stringList(Object value) {
+        List<String> result = new ArrayList<>();
+        if (value instanceof List<?> list) {
+            for (Object item : list) {
+                result.add((String) item);
+            }
+        }
+        return result;
+    }
+
+    private static int parseInt(String value) {
+        try {
+            return value != null ? Integer.parseInt(value) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
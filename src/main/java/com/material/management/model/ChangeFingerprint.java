@@ -0,0 +1,45 @@
+package com.material.management.model;
+
+/**
+ * 数据变更指纹模型
+ * 由表的更新时间、行数估计和结构摘要等拼接而成，用于生成ETag和Last-Modified
+ * 
+ * @author Material Management System
+ * @version 1.0.0
+ */
+public class ChangeFingerprint {
+    private String value;
+    private Long lastModified;
+
+    public ChangeFingerprint() {}
+
+    public ChangeFingerprint(String value, Long lastModified) {
+        this.value = value;
+        this.lastModified = lastModified;
+    }
+
+    // Getters and Setters
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public Long getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Long lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeFingerprint{" +
+                "value='" + value + '\'' +
+                ", lastModified=" + lastModified +
+                '}';
+    }
+}
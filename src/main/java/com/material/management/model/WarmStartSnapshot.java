@@ -0,0 +1,117 @@
+package com.material.management.model;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 预热快照模型
+ * 保存表元数据、行数估计、变更指纹、桶文件索引和热点缩略图列表，启动时读回以免冷启动
+ * 
+ * @author Material Management System
+ * @version 1.0.0
+ */
+public class WarmStartSnapshot {
+    private int version;
+    private long createdAt;
+    // 库 -> 表名列表
+    private Map<String, List<String>> tableNames = new HashMap<>();
+    // 库 -> 已加载的表元数据
+    private Map<String, List<TableInfo>> tables = new HashMap<>();
+    // 库.表.structure -> 列名
+    private Map<String, List<String>> tableStructures = new HashMap<>();
+    // 库.表.count -> 行数估计
+    private Map<String, Integer> rowCounts = new HashMap<>();
+    // 库 或 库.表 -> 变更指纹
+    private Map<String, String> fingerprints = new HashMap<>();
+    // 桶 -> 对象键
+    private Map<String, Set<String>> bucketFiles = new HashMap<>();
+    // 内存中缓存过的缩略图文件名
+    private List<String> hotThumbnails;
+
+    public WarmStartSnapshot() {}
+
+    // Getters and Setters
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Map<String, List<String>> getTableNames() {
+        return tableNames;
+    }
+
+    public void setTableNames(Map<String, List<String>> tableNames) {
+        this.tableNames = tableNames;
+    }
+
+    public Map<String, List<TableInfo>> getTables() {
+        return tables;
+    }
+
+    public void setTables(Map<String, List<TableInfo>> tables) {
+        this.tables = tables;
+    }
+
+    public Map<String, List<String>> getTableStructures() {
+        return tableStructures;
+    }
+
+    public void setTableStructures(Map<String, List<String>> tableStructures) {
+        this.tableStructures = tableStructures;
+    }
+
+    public Map<String, Integer> getRowCounts() {
+        return rowCounts;
+    }
+
+    public void setRowCounts(Map<String, Integer> rowCounts) {
+        this.rowCounts = rowCounts;
+    }
+
+    public Map<String, String> getFingerprints() {
+        return fingerprints;
+    }
+
+    public void setFingerprints(Map<String, String> fingerprints) {
+        this.fingerprints = fingerprints;
+    }
+
+    public Map<String, Set<String>> getBucketFiles() {
+        return bucketFiles;
+    }
+
+    public void setBucketFiles(Map<String, Set<String>> bucketFiles) {
+        this.bucketFiles = bucketFiles;
+    }
+
+    public List<String> getHotThumbnails() {
+        return hotThumbnails;
+    }
+
+    public void setHotThumbnails(List<String> hotThumbnails) {
+        this.hotThumbnails = hotThumbnails;
+    }
+
+    @Override
+    public String toString() {
+        return "WarmStartSnapshot{" +
+                "version=" + version +
+                ", createdAt=" + createdAt +
+                ", databases=" + tableNames.size() +
+                ", buckets=" + bucketFiles.size() +
+                '}';
+    }
+}
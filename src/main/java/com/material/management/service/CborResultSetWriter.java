@@ -0,0 +1,185 @@
+package com.material.management.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.JDBCType;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 把JDBC结果集直接写成CBOR
+ * 按列的SQL类型调用对应的getXxx并写出原生的CBOR类型（整数、浮点、布尔、字节串、十进制分数），
+ * 不经过Map和JSON文本中转；日期时间按ISO-8601字符串写出，与JSON接口的表示一致
+ *
+ * @author Material Management System
+ * @version 1.0.0
+ */
+public class CborResultSetWriter {
+
+    private final CBORGenerator generator;
+    private final int[] columnIndexes;
+    private final int[] columnTypes;
+    private final List<String> columnTypeNames;
+
+    /**
+     * @param columns 要写出的列（顺序即输出顺序）
+     */
+    public CborResultSetWriter(CBORGenerator generator, ResultSet rs, List<String> columns) throws SQLException {
+        this.generator = generator;
+        this.columnIndexes = new int[columns.size()];
+        this.columnTypes = new int[columns.size()];
+        this.columnTypeNames = new ArrayList<>(columns.size());
+
+        ResultSetMetaData metaData = rs.getMetaData();
+        for (int i = 0; i < columns.size(); i++) {
+            columnIndexes[i] = rs.findColumn(columns.get(i));
+            columnTypes[i] = metaData.getColumnType(columnIndexes[i]);
+            columnTypeNames.add(typeName(columnTypes[i]));
+        }
+    }
+
+    /**
+     * 各列的JDBC类型名称，供客户端解码
+     */
+    public List<String> getColumnTypeNames() {
+        return columnTypeNames;
+    }
+
+    /**
+     * 写出当前行的各列值（不含数组的开始和结束）
+     */
+    public void writeValues(ResultSet rs) throws SQLException, IOException {
+        writeValues(rs, generator);
+    }
+
+    /**
+     * 把当前行的各列值写到指定的生成器（如先缓冲到TokenBuffer，稍后再写出）
+     */
+    public void writeValues(ResultSet rs, JsonGenerator target) throws SQLException, IOException {
+        for (int i = 0; i < columnIndexes.length; i++) {
+            writeValue(target, rs, columnIndexes[i], columnTypes[i]);
+        }
+    }
+
+    /**
+     * 写出当前行的各列值组成的定长数组
+     */
+    public void writeRow(ResultSet rs) throws SQLException, IOException {
+        generator.writeStartArray(null, columnIndexes.length);
+        writeValues(rs);
+        generator.writeEndArray();
+    }
+
+    private static void writeValue(JsonGenerator generator, ResultSet rs, int index, int type)
+            throws SQLException, IOException {
+        switch (type) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER: {
+                // 用long读取，无符号INT也不会溢出
+                long value = rs.getLong(index);
+                if (rs.wasNull()) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(value);
+                }
+                return;
+            }
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE: {
+                double value = rs.getDouble(index);
+                if (rs.wasNull()) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(value);
+                }
+                return;
+            }
+            case Types.BIT:
+            case Types.BOOLEAN: {
+                boolean value = rs.getBoolean(index);
+                if (rs.wasNull()) {
+                    generator.writeNull();
+                } else {
+                    generator.writeBoolean(value);
+                }
+                return;
+            }
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.BLOB: {
+                byte[] value = rs.getBytes(index);
+                if (value == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeBinary(value);
+                }
+                return;
+            }
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+            case Types.CLOB: {
+                String value = rs.getString(index);
+                if (value == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeString(value);
+                }
+                return;
+            }
+            default:
+                // BIGINT（无符号时为BigInteger）、DECIMAL、日期时间等按驱动返回的对象类型写出
+                writeObject(generator, rs.getObject(index));
+        }
+    }
+
+    private static void writeObject(JsonGenerator generator, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            generator.writeNumber(((Number) value).longValue());
+        } else if (value instanceof BigInteger) {
+            generator.writeNumber((BigInteger) value);
+        } else if (value instanceof BigDecimal) {
+            generator.writeNumber((BigDecimal) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            generator.writeNumber(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else if (value instanceof byte[]) {
+            generator.writeBinary((byte[]) value);
+        } else if (value instanceof Timestamp) {
+            generator.writeString(((Timestamp) value).toLocalDateTime().toString());
+        } else if (value instanceof java.sql.Date) {
+            generator.writeString(((java.sql.Date) value).toLocalDate().toString());
+        } else if (value instanceof java.sql.Time) {
+            generator.writeString(((java.sql.Time) value).toLocalTime().toString());
+        } else {
+            // LocalDateTime、LocalDate等的toString即ISO-8601格式
+            generator.writeString(value.toString());
+        }
+    }
+
+    private static String typeName(int type) {
+        try {
+            return JDBCType.valueOf(type).getName();
+        } catch (IllegalArgumentException e) {
+            return "OTHER";
+        }
+    }
+}
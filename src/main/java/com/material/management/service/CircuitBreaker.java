@@ -0,0 +1,105 @@
+package com.material.management.service;
+
+/**
+ * 简单的熔断器
+ * 连续失败达到阈值后打开，打开期间直接拒绝调用；
+ * 打开时间结束后进入半开状态，只放行一个探测请求，成功则关闭，失败则重新打开
+ *
+ * @author Material Management System
+ * @version 1.0.0
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * 熔断器打开时抛出，调用方应直接降级
+     */
+    public static class OpenException extends RuntimeException {
+        public OpenException(String name) {
+            super("服务熔断中: " + name);
+        }
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(String name, int failureThreshold, long openMillis) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * 调用前检查是否放行
+     *
+     * @throws OpenException 熔断器打开，或半开状态下已有探测请求
+     */
+    public void acquire() {
+        if (!tryAcquire()) {
+            throw new OpenException(name);
+        }
+    }
+
+    /**
+     * 尝试取得放行名额：半开状态下成功时占用唯一的探测名额，
+     * 调用方之后必须调用recordSuccess或recordFailure
+     *
+     * @return 是否放行
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openMillis) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                return false;
+            }
+            probeInFlight = true;
+        }
+        return true;
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        state = State.CLOSED;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * 当前是否会放行请求（不占用半开状态的探测名额）
+     */
+    public synchronized boolean isAvailable() {
+        if (state == State.OPEN) {
+            return System.currentTimeMillis() - openedAt >= openMillis;
+        }
+        return !(state == State.HALF_OPEN && probeInFlight);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,69 @@
+package com.material.management.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV文件的稀疏行偏移索引
+ * 每隔interval条数据行记录一次该行的起始字节偏移，翻页时从最近的检查点发起区间GET，
+ * 不必从文件开头重新解析；ETag变化后整个索引作废
+ *
+ * @author Material Management System
+ * @version 1.0.0
+ */
+public class CsvRowIndex {
+
+    private final String etag;
+    private final int interval;
+    private final List<String> headers;
+    // checkpoints.get(k) 为第 k*interval 条数据行的起始字节偏移
+    private final List<Long> checkpoints = new ArrayList<>();
+    private long totalRows = -1;
+
+    public CsvRowIndex(String etag, int interval, List<String> headers) {
+        this.etag = etag;
+        this.interval = interval;
+        this.headers = headers;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public List<String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * 找到不超过row的最近检查点
+     *
+     * @return {检查点行号, 字节偏移}；尚无检查点时返回null
+     */
+    public synchronized long[] checkpointFor(long row) {
+        if (checkpoints.isEmpty()) {
+            return null;
+        }
+        int index = (int) Math.min(row / interval, checkpoints.size() - 1);
+        return new long[]{(long) index * interval, checkpoints.get(index)};
+    }
+
+    /**
+     * 解析过程中遇到数据行时调用，恰好是下一个检查点时记录下来
+     */
+    public synchronized void record(long row, long offset) {
+        if (row % interval == 0 && row / interval == checkpoints.size()) {
+            checkpoints.add(offset);
+        }
+    }
+
+    /**
+     * 数据总行数，尚未解析到文件末尾时为-1
+     */
+    public synchronized long getTotalRows() {
+        return totalRows;
+    }
+
+    public synchronized void setTotalRows(long totalRows) {
+        this.totalRows = totalRows;
+    }
+}
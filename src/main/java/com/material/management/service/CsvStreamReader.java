@@ -0,0 +1,201 @@
+package com.material.management.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 按字节流解析的RFC 4180 CSV读取器
+ * 直接在输入字节上识别逗号、双引号和换行（这些ASCII字节不会出现在UTF-8多字节字符内部），
+ * 字段内容复用同一个字节缓冲区，只在字段结束时解码为字符串；
+ * 支持引号内的逗号、换行以及 "" 转义，并记录每条记录在对象中的起始字节偏移，用于建立行索引
+ *
+ * @author Material Management System
+ * @version 1.0.0
+ */
+public class CsvStreamReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream inputStream;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferLength;
+    private int bufferPosition;
+
+    // 下一个待读取字节在对象中的绝对偏移
+    private long position;
+    private long recordStart;
+
+    private byte[] field = new byte[256];
+    private int fieldLength;
+
+    /**
+     * @param inputStream 从startOffset处开始的对象内容
+     * @param startOffset 输入流第一个字节在对象中的偏移（必须位于记录起始处）
+     */
+    public CsvStreamReader(InputStream inputStream, long startOffset) {
+        this.inputStream = inputStream;
+        this.position = startOffset;
+    }
+
+    /**
+     * 读取下一条记录；到达末尾返回null，空行跳过
+     */
+    public List<String> nextRecord() throws IOException {
+        while (true) {
+            if (position == 0) {
+                skipBom();
+            }
+            recordStart = position;
+
+            int b = read();
+            if (b < 0) {
+                return null;
+            }
+            if (b == '\n') {
+                continue;
+            }
+            if (b == '\r') {
+                skipLineFeed();
+                continue;
+            }
+            return parseRecord(b);
+        }
+    }
+
+    /**
+     * 最近一次返回的记录的起始字节偏移
+     */
+    public long getRecordStart() {
+        return recordStart;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inputStream.close();
+    }
+
+    private List<String> parseRecord(int first) throws IOException {
+        List<String> record = new ArrayList<>();
+        fieldLength = 0;
+        boolean inQuotes = false;
+        boolean quoted = false;
+        int b = first;
+
+        while (true) {
+            if (b < 0) {
+                record.add(takeField(quoted));
+                return record;
+            }
+
+            if (inQuotes) {
+                if (b == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        append('"');
+                    } else {
+                        inQuotes = false;
+                        b = next;
+                        continue;
+                    }
+                } else {
+                    append(b);
+                }
+            } else if (b == ',') {
+                record.add(takeField(quoted));
+                quoted = false;
+            } else if (b == '\n') {
+                record.add(takeField(quoted));
+                return record;
+            } else if (b == '\r') {
+                skipLineFeed();
+                record.add(takeField(quoted));
+                return record;
+            } else if (b == '"' && fieldLength == 0 && !quoted) {
+                inQuotes = true;
+                quoted = true;
+            } else {
+                append(b);
+            }
+            b = read();
+        }
+    }
+
+    private String takeField(boolean quoted) {
+        int start = 0;
+        int end = fieldLength;
+        if (!quoted) {
+            // 与原有预览一致：未加引号的字段去掉首尾空白
+            while (start < end && (field[start] == ' ' || field[start] == '\t')) {
+                start++;
+            }
+            while (end > start && (field[end - 1] == ' ' || field[end - 1] == '\t')) {
+                end--;
+            }
+        }
+        String value = new String(field, start, end - start, StandardCharsets.UTF_8);
+        fieldLength = 0;
+        return value;
+    }
+
+    private void append(int b) {
+        if (fieldLength == field.length) {
+            field = Arrays.copyOf(field, field.length * 2);
+        }
+        field[fieldLength++] = (byte) b;
+    }
+
+    private void skipBom() throws IOException {
+        if (peek() == 0xEF && fill(3) && (buffer[bufferPosition + 1] & 0xFF) == 0xBB
+                && (buffer[bufferPosition + 2] & 0xFF) == 0xBF) {
+            bufferPosition += 3;
+            position += 3;
+        }
+    }
+
+    private void skipLineFeed() throws IOException {
+        if (peek() == '\n') {
+            read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (bufferPosition >= bufferLength && !fill(1)) {
+            return -1;
+        }
+        position++;
+        return buffer[bufferPosition++] & 0xFF;
+    }
+
+    private int peek() throws IOException {
+        if (bufferPosition >= bufferLength && !fill(1)) {
+            return -1;
+        }
+        return buffer[bufferPosition] & 0xFF;
+    }
+
+    /**
+     * 保证缓冲区中至少有count个未读字节（到达末尾时返回false）
+     */
+    private boolean fill(int count) throws IOException {
+        if (bufferLength - bufferPosition >= count) {
+            return true;
+        }
+        int remaining = bufferLength - bufferPosition;
+        System.arraycopy(buffer, bufferPosition, buffer, 0, remaining);
+        bufferPosition = 0;
+        bufferLength = remaining;
+        while (bufferLength < count) {
+            int read = inputStream.read(buffer, bufferLength, buffer.length - bufferLength);
+            if (read < 0) {
+                return false;
+            }
+            bufferLength += read;
+        }
+        return true;
+    }
+}
@@ -1,18 +1,46 @@
 package com.material.management.service;
 
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.material.management.config.DatabaseConfig;
+import com.material.management.model.ChangeFingerprint;
 import com.material.management.model.ColumnInfo;
 import com.material.management.model.DatabaseInfo;
 import com.material.management.model.TableInfo;
+import com.material.management.model.WarmStartSnapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
 
 import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * 数据库服务类
@@ -35,6 +63,9 @@ public class DatabaseService {
     @Autowired
     private OssService ossService;
 
+    // CBOR编码（附件信息等小对象经它序列化）
+    private final CBORMapper cborMapper = new CBORMapper();
+
     // 系统数据库列表，需要过滤掉
     private static final Set<String> SYSTEM_DATABASES = Set.of(
         "information_schema", "mysql", "performance_schema", "sys"
@@ -78,51 +109,69 @@ public class DatabaseService {
         }
     }
 
-    // 表信息缓存
-    private final ConcurrentHashMap<String, List<TableInfo>> tableInfoCache = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, Long> tableInfoCacheTime = new ConcurrentHashMap<>();
+    // 表元数据注册表：按 (库, 表) 索引，单表按需加载
     private static final long TABLE_INFO_CACHE_DURATION = 10 * 60 * 1000; // 10分钟缓存
+    private final TableMetadataRegistry metadataRegistry =
+        new TableMetadataRegistry(new MetadataLoader(), TABLE_INFO_CACHE_DURATION);
 
     /**
-     * 获取指定数据库的表信息（使用缓存优化）
+     * 获取指定数据库的表信息（使用元数据注册表）
      */
     public List<TableInfo> getTables(String databaseName) {
-        String cacheKey = databaseName + ".tables";
-        Long cacheTime = tableInfoCacheTime.get(cacheKey);
-
-        // 检查缓存是否有效
-        if (cacheTime != null && (System.currentTimeMillis() - cacheTime) < TABLE_INFO_CACHE_DURATION) {
-            List<TableInfo> cachedTables = tableInfoCache.get(cacheKey);
-            if (cachedTables != null) {
-                logger.debug("从缓存获取表信息: {}, 表数: {}", databaseName, cachedTables.size());
-                return cachedTables;
-            }
+        try {
+            List<TableInfo> tables = metadataRegistry.getTables(databaseName);
+            logger.debug("获取数据库 {} 的 {} 个表信息", databaseName, tables.size());
+            return tables;
+        } catch (Exception e) {
+            logger.error("获取数据库 {} 的表信息失败: {}", databaseName, e.getMessage());
+            throw new RuntimeException("获取表信息失败: " + e.getMessage());
         }
+    }
 
+    /**
+     * 获取单个表的信息（只加载这一个表的元数据）；表不存在时返回null
+     */
+    public TableInfo getTable(String databaseName, String tableName) {
         try {
-            // 创建连接到指定数据库的JdbcTemplate
-            DataSource dataSource = databaseConfig.createDataSourceForDatabase(databaseName);
-            JdbcTemplate dbJdbcTemplate = new JdbcTemplate(dataSource);
+            return metadataRegistry.getTable(databaseName, tableName);
+        } catch (Exception e) {
+            logger.error("获取表 {}.{} 的信息失败: {}", databaseName, tableName, e.getMessage());
+            throw new RuntimeException("获取表信息失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 注册表的元数据加载实现
+     */
+    private class MetadataLoader implements TableMetadataRegistry.Loader {
 
-            // 获取表列表
-            String sql = "SHOW TABLES";
-            List<String> tableNames = dbJdbcTemplate.queryForList(sql, String.class);
+        @Override
+        public List<String> listTables(String databaseName) {
+            DataSource dataSource = databaseConfig.createDataSourceForDatabase(databaseName);
+            List<String> tableNames = new JdbcTemplate(dataSource).queryForList("SHOW TABLES", String.class);
+            logger.info("成功获取数据库 {} 的 {} 个表名", databaseName, tableNames.size());
+            return tableNames;
+        }
 
-            List<TableInfo> tables = new ArrayList<>();
-            for (String tableName : tableNames) {
-                TableInfo tableInfo = getTableInfo(dbJdbcTemplate, databaseName, tableName);
-                tables.add(tableInfo);
+        @Override
+        public TableInfo loadTable(String databaseName, String tableName, boolean knownToExist) {
+            // 只有用户直接指定的表名才需要检查是否存在
+            if (!knownToExist) {
+                String existsSql = "SELECT COUNT(*) FROM information_schema.tables WHERE table_schema = ? AND table_name = ?";
+                Integer exists = jdbcTemplate.queryForObject(existsSql, Integer.class, databaseName, tableName);
+                if (exists == null || exists == 0) {
+                    return null;
+                }
             }
+            DataSource dataSource = databaseConfig.createDataSourceForDatabase(databaseName);
+            return getTableInfo(new JdbcTemplate(dataSource), databaseName, tableName);
+        }
 
-            // 缓存结果
-            tableInfoCache.put(cacheKey, tables);
-            tableInfoCacheTime.put(cacheKey, System.currentTimeMillis());
-
-            logger.info("成功获取数据库 {} 的 {} 个表信息", databaseName, tables.size());
-            return tables;
-        } catch (Exception e) {
-            logger.error("获取数据库 {} 的表信息失败: {}", databaseName, e.getMessage());
-            throw new RuntimeException("获取表信息失败: " + e.getMessage());
+        @Override
+        public long[] loadAggregate(String databaseName) {
+            String sql = "SELECT COUNT(*), COALESCE(SUM(TABLE_ROWS), 0) FROM information_schema.tables WHERE TABLE_SCHEMA = ?";
+            return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)},
+                databaseName);
         }
     }
 
@@ -176,6 +225,22 @@ public class DatabaseService {
         return getTableData(databaseName, tableName, limit, 0);
     }
 
+    // 附件匹配使用的扩展名
+    private static final String[] IMAGE_EXTENSIONS = {".jpg", ".jpeg", ".png", ".gif", ".bmp", ".webp", ".jfif", ".jpe"};
+    private static final String[] TEXT_EXTENSIONS = {".txt", ".md", ".doc", ".docx", ".pdf", ".csv"};
+
+    // 流式读取表数据时的分批大小：第一批较小，让首屏尽快出现
+    private static final int STREAM_FIRST_BATCH_SIZE = 20;
+    private static final int STREAM_BATCH_SIZE = 200;
+
+    /**
+     * 流式表数据事件回调（依次收到meta、若干组rows/attachments、done）
+     */
+    @FunctionalInterface
+    public interface TableStreamConsumer {
+        void accept(String event, Map<String, Object> data) throws IOException;
+    }
+
     // 查询结果缓存
     private final ConcurrentHashMap<String, Object> queryCache = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, Long> queryCacheTime = new ConcurrentHashMap<>();
@@ -226,13 +291,10 @@ public class DatabaseService {
             }
 
             // 批量匹配图片和文本文件
-            String[] imageExtensions = {".jpg", ".jpeg", ".png", ".gif", ".bmp", ".webp", ".jfif", ".jpe"};
-            String[] textExtensions = {".txt", ".md", ".doc", ".docx", ".pdf", ".csv"};
-
             Map<String, String> imageMatches = ossService.batchMatchFiles(
-                ossService.getOssConfig().getImageBucketName(), allIds, imageExtensions);
+                ossService.getOssConfig().getImageBucketName(), allIds, IMAGE_EXTENSIONS);
             Map<String, String> textMatches = ossService.batchMatchFiles(
-                ossService.getOssConfig().getTextBucketName(), allIds, textExtensions);
+                ossService.getOssConfig().getTextBucketName(), allIds, TEXT_EXTENSIONS);
 
             // 处理每一行数据，添加OSS文件信息
             for (int i = 0; i < rows.size(); i++) {
@@ -249,27 +311,9 @@ public class DatabaseService {
                 String imageFileName = imageMatches.get(id);
                 String textFileName = textMatches.get(id);
 
-                // 添加图片信息（异步加载模式）
-                Map<String, Object> imageInfo = new HashMap<>();
-                if (imageFileName != null) {
-                    imageInfo.put("fileName", imageFileName);
-                    imageInfo.put("exists", true); // 批量匹配已确认存在
-                    imageInfo.put("loadAsync", true); // 标记为异步加载
-                } else {
-                    imageInfo.put("exists", false);
-                }
-                enhancedRow.add(imageInfo);
-
-                // 添加文本文件信息（异步加载模式）
-                Map<String, Object> textInfo = new HashMap<>();
-                if (textFileName != null) {
-                    textInfo.put("fileName", textFileName);
-                    textInfo.put("exists", true); // 批量匹配已确认存在
-                    textInfo.put("loadAsync", true); // 标记为异步加载
-                } else {
-                    textInfo.put("exists", false);
-                }
-                enhancedRow.add(textInfo);
+                // 添加图片和文本文件信息（异步加载模式）
+                enhancedRow.add(buildAttachmentInfo(imageFileName));
+                enhancedRow.add(buildAttachmentInfo(textFileName));
 
                 enhancedRows.add(enhancedRow);
             }
@@ -388,6 +432,203 @@ public class DatabaseService {
 
 
 
+    /**
+     * 流式读取一页表数据
+     * 先发送列信息，再按批发送从结果集读到的行，每批行之后紧跟该批的附件匹配结果，最后发送总数；
+     * 首批行的到达时间与页大小无关。结果集在readExecutor（数据库线程池）内读取，读完即释放数据库线程，
+     * 附件匹配和推送在调用线程进行。consumer抛出IOException（客户端已断开）时停止读取
+     */
+    public void streamTableData(String databaseName, String tableName, int limit, int offset,
+                                Executor readExecutor, TableStreamConsumer consumer) throws IOException {
+        long startTime = System.currentTimeMillis();
+        // 一页最多1000行，队列不设上限，数据库线程不等待慢客户端
+        BlockingQueue<StreamChunk> chunks = new LinkedBlockingQueue<>();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        CompletableFuture<Void> reading = CompletableFuture.runAsync(
+                () -> readTableStream(databaseName, tableName, limit, offset, chunks, cancelled), readExecutor);
+
+        List<String> columns = null;
+        int sent = 0;
+        int totalCount = -1;
+        try {
+            StreamChunk chunk;
+            while ((chunk = chunks.take()) != StreamChunk.END) {
+                if (chunk.rows != null) {
+                    sendRowBatch(columns, chunk.rows, sent, consumer);
+                    sent += chunk.rows.size();
+                } else if (chunk.columns != null) {
+                    columns = chunk.columns;
+                    List<String> enhancedColumns = new ArrayList<>(columns);
+                    enhancedColumns.add("图片");
+                    enhancedColumns.add("文本文件");
+
+                    Map<String, Object> meta = new HashMap<>();
+                    meta.put("columns", enhancedColumns);
+                    meta.put("databaseName", databaseName);
+                    meta.put("tableName", tableName);
+                    meta.put("offset", offset);
+                    meta.put("pageSize", limit);
+                    meta.put("currentPage", offset / limit + 1);
+                    consumer.accept("meta", meta);
+                } else {
+                    totalCount = chunk.totalCount;
+                }
+            }
+        } catch (InterruptedException e) {
+            cancelled.set(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("表数据流被中断", e);
+        } catch (UncheckedIOException e) {
+            cancelled.set(true);
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            cancelled.set(true);
+            throw e;
+        }
+
+        // 读取失败时在这里抛出原异常
+        try {
+            reading.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        Map<String, Object> done = new HashMap<>();
+        done.put("totalRows", sent);
+        done.put("totalCount", totalCount);
+        done.put("hasNext", offset + limit < totalCount);
+        done.put("hasPrevious", offset > 0);
+        done.put("elapsedMs", System.currentTimeMillis() - startTime);
+        consumer.accept("done", done);
+
+        logger.info("流式输出表 {}.{} 的 {} 条数据, 耗时: {}ms", databaseName, tableName, sent,
+                System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * 数据库线程内读取结果集，依次放入列信息、各批行和总数，结束时（包括失败）放入END
+     */
+    private void readTableStream(String databaseName, String tableName, int limit, int offset,
+                                 BlockingQueue<StreamChunk> chunks, AtomicBoolean cancelled) {
+        try {
+            DataSource dataSource = databaseConfig.createDataSourceForDatabase(databaseName);
+            JdbcTemplate dbJdbcTemplate = new JdbcTemplate(dataSource);
+            dbJdbcTemplate.setFetchSize(STREAM_BATCH_SIZE);
+
+            List<String> columns = getCachedTableStructure(dbJdbcTemplate, databaseName, tableName);
+            chunks.add(new StreamChunk(columns, null, -1));
+
+            List<Map<String, Object>> batch = new ArrayList<>();
+            int[] produced = {0};
+            try {
+                dbJdbcTemplate.query(buildOptimizedDataQuery(tableName, columns, limit, offset), (RowCallbackHandler) rs -> {
+                    if (cancelled.get()) {
+                        throw new CancellationException();
+                    }
+                    Map<String, Object> row = new HashMap<>();
+                    for (String column : columns) {
+                        row.put(column, rs.getObject(column));
+                    }
+                    batch.add(row);
+                    if (batch.size() >= (produced[0] == 0 ? STREAM_FIRST_BATCH_SIZE : STREAM_BATCH_SIZE)) {
+                        chunks.add(new StreamChunk(null, new ArrayList<>(batch), -1));
+                        produced[0] += batch.size();
+                        batch.clear();
+                    }
+                });
+            } catch (CancellationException e) {
+                logger.debug("客户端已断开，停止读取表 {}.{}", databaseName, tableName);
+                return;
+            }
+            if (!batch.isEmpty()) {
+                chunks.add(new StreamChunk(null, new ArrayList<>(batch), -1));
+            }
+
+            // 总数可能需要COUNT查询，放在行数据之后
+            if (!cancelled.get()) {
+                chunks.add(new StreamChunk(null, null, getCachedTableCount(dbJdbcTemplate, databaseName, tableName)));
+            }
+        } finally {
+            chunks.add(StreamChunk.END);
+        }
+    }
+
+    /**
+     * 流式读取时数据库线程交给推送线程的一段数据：列信息、一批行或总数之一
+     */
+    private static final class StreamChunk {
+        static final StreamChunk END = new StreamChunk(null, null, -1);
+
+        final List<String> columns;
+        final List<Map<String, Object>> rows;
+        final int totalCount;
+
+        StreamChunk(List<String> columns, List<Map<String, Object>> rows, int totalCount) {
+            this.columns = columns;
+            this.rows = rows;
+            this.totalCount = totalCount;
+        }
+    }
+
+    /**
+     * 发送一批行，然后发送这批行的附件匹配结果
+     */
+    private void sendRowBatch(List<String> columns, List<Map<String, Object>> batch, int start,
+                              TableStreamConsumer consumer) {
+        try {
+            List<List<Object>> rows = new ArrayList<>();
+            List<String> ids = new ArrayList<>();
+            for (Map<String, Object> row : batch) {
+                List<Object> values = new ArrayList<>();
+                for (String column : columns) {
+                    values.add(row.get(column));
+                }
+                rows.add(values);
+                ids.add(getIdFromRow(row));
+            }
+            Map<String, Object> rowsEvent = new HashMap<>();
+            rowsEvent.put("start", start);
+            rowsEvent.put("rows", rows);
+            consumer.accept("rows", rowsEvent);
+
+            Map<String, String> imageMatches = ossService.batchMatchFiles(
+                ossService.getOssConfig().getImageBucketName(), ids, IMAGE_EXTENSIONS);
+            Map<String, String> textMatches = ossService.batchMatchFiles(
+                ossService.getOssConfig().getTextBucketName(), ids, TEXT_EXTENSIONS);
+            List<Map<String, Object>> images = new ArrayList<>();
+            List<Map<String, Object>> texts = new ArrayList<>();
+            for (String id : ids) {
+                images.add(buildAttachmentInfo(imageMatches.get(id)));
+                texts.add(buildAttachmentInfo(textMatches.get(id)));
+            }
+            Map<String, Object> attachmentsEvent = new HashMap<>();
+            attachmentsEvent.put("start", start);
+            attachmentsEvent.put("images", images);
+            attachmentsEvent.put("texts", texts);
+            consumer.accept("attachments", attachmentsEvent);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 附件单元格信息（异步加载模式，批量匹配已确认存在）
+     */
+    private Map<String, Object> buildAttachmentInfo(String fileName) {
+        Map<String, Object> info = new HashMap<>();
+        if (fileName != null) {
+            info.put("fileName", fileName);
+            info.put("exists", true);
+            info.put("loadAsync", true);
+        } else {
+            info.put("exists", false);
+        }
+        return info;
+    }
+
     /**
      * 清理查询缓存
      */
@@ -398,11 +639,59 @@ public class DatabaseService {
         tableStructureCacheTime.clear();
         countCache.clear();
         countCacheTime.clear();
-        tableInfoCache.clear();
-        tableInfoCacheTime.clear();
+        metadataRegistry.clear();
+        knownFingerprints.clear();
         logger.info("查询缓存已清理");
     }
 
+    /**
+     * 把表元数据、表结构、行数估计和变更指纹写入预热快照（只导出未过期的条目）
+     */
+    public void exportWarmStart(WarmStartSnapshot snapshot) {
+        long now = System.currentTimeMillis();
+        snapshot.setTableNames(metadataRegistry.exportTableNames());
+        snapshot.setTables(metadataRegistry.exportTables());
+        tableStructureCache.forEach((key, columns) -> {
+            Long cacheTime = tableStructureCacheTime.get(key);
+            if (cacheTime != null && now - cacheTime < TABLE_STRUCTURE_CACHE_DURATION) {
+                snapshot.getTableStructures().put(key, columns);
+            }
+        });
+        countCache.forEach((key, count) -> {
+            Long cacheTime = countCacheTime.get(key);
+            if (cacheTime != null && now - cacheTime < COUNT_CACHE_DURATION) {
+                snapshot.getRowCounts().put(key, count);
+            }
+        });
+        snapshot.setFingerprints(new HashMap<>(knownFingerprints));
+    }
+
+    /**
+     * 从预热快照恢复缓存
+     * 指纹一并恢复：之后的条件请求或后台校验发现指纹变化时，对应的缓存会照常淘汰
+     */
+    public void restoreWarmStart(WarmStartSnapshot snapshot) {
+        long now = System.currentTimeMillis();
+        snapshot.getTableNames().forEach((databaseName, tableNames) ->
+            metadataRegistry.restore(databaseName, tableNames, snapshot.getTables().get(databaseName)));
+        snapshot.getTables().forEach((databaseName, tables) -> {
+            if (!snapshot.getTableNames().containsKey(databaseName)) {
+                metadataRegistry.restore(databaseName, null, tables);
+            }
+        });
+        snapshot.getTableStructures().forEach((key, columns) -> {
+            tableStructureCache.put(key, columns);
+            tableStructureCacheTime.put(key, now);
+        });
+        snapshot.getRowCounts().forEach((key, count) -> {
+            countCache.put(key, count);
+            countCacheTime.put(key, now);
+        });
+        knownFingerprints.putAll(snapshot.getFingerprints());
+        logger.info("已从预热快照恢复 {} 个库的元数据, {} 个表结构, {} 个行数估计",
+                snapshot.getTableNames().size(), snapshot.getTableStructures().size(), snapshot.getRowCounts().size());
+    }
+
     /**
      * 根据行数据查找对应的图片文件名
      * 匹配规则：只根据表中id字段匹配
@@ -579,13 +868,9 @@ public class DatabaseService {
      */
     public DatabaseInfo getDatabaseStatistics(String databaseName) {
         try {
-            List<TableInfo> tables = getTables(databaseName);
-
-            int tableCount = tables.size();
-            long totalRows = tables.stream().mapToLong(TableInfo::getRowCount).sum();
-
-            DatabaseInfo dbInfo = new DatabaseInfo(databaseName, tableCount, totalRows);
-            logger.info("数据库 {} 统计: {} 个表, {} 条记录", databaseName, tableCount, totalRows);
+            // 注册表中的汇总值：整库已加载时直接求和，否则一次information_schema汇总查询
+            DatabaseInfo dbInfo = metadataRegistry.getStatistics(databaseName);
+            logger.info("数据库 {} 统计: {} 个表, {} 条记录", databaseName, dbInfo.getTableCount(), dbInfo.getTotalRows());
 
             return dbInfo;
         } catch (Exception e) {
@@ -594,6 +879,151 @@ public class DatabaseService {
         }
     }
 
+    // 最近一次看到的变更指纹；指纹变化时淘汰对应的缓存，保证缓存内容与ETag一致
+    private final ConcurrentHashMap<String, String> knownFingerprints = new ConcurrentHashMap<>();
+
+    /**
+     * 数据库列表的变更指纹
+     */
+    public ChangeFingerprint getDatabasesFingerprint() {
+        String sql = "SELECT COUNT(*), MD5(GROUP_CONCAT(SCHEMA_NAME ORDER BY SCHEMA_NAME SEPARATOR ',')) " +
+                    "FROM information_schema.schemata";
+        return queryStatistics(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql);
+                 ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                return new ChangeFingerprint(rs.getLong(1) + "|" + rs.getString(2), null);
+            }
+        });
+    }
+
+    /**
+     * 数据库的变更指纹（表列表、统计信息）
+     * 汇总库内所有表的更新时间、行数估计、数据量和自增值，以及全部列定义的摘要；
+     * 指纹变化时淘汰该库所有表的结构、记录数和元数据缓存
+     */
+    public ChangeFingerprint getSchemaFingerprint(String databaseName) {
+        String sql = "SELECT COUNT(*), MAX(t.UPDATE_TIME), MAX(t.CREATE_TIME), SUM(t.TABLE_ROWS), " +
+                    "SUM(t.DATA_LENGTH), SUM(t.AUTO_INCREMENT), " +
+                    "(SELECT MD5(GROUP_CONCAT(c.TABLE_NAME, '.', c.COLUMN_NAME, ' ', c.COLUMN_TYPE " +
+                    "ORDER BY c.TABLE_NAME, c.ORDINAL_POSITION SEPARATOR ',')) " +
+                    "FROM information_schema.columns c WHERE c.TABLE_SCHEMA = ?) " +
+                    "FROM information_schema.tables t WHERE t.TABLE_SCHEMA = ?";
+        ChangeFingerprint fingerprint = queryStatistics(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setString(1, databaseName);
+                statement.setString(2, databaseName);
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    return toFingerprint(rs);
+                }
+            }
+        });
+
+        if (fingerprintChanged(databaseName, fingerprint)) {
+            String prefix = databaseName + ".";
+            tableStructureCache.keySet().removeIf(key -> key.startsWith(prefix));
+            tableStructureCacheTime.keySet().removeIf(key -> key.startsWith(prefix));
+            countCache.keySet().removeIf(key -> key.startsWith(prefix));
+            countCacheTime.keySet().removeIf(key -> key.startsWith(prefix));
+            metadataRegistry.invalidateDatabase(databaseName);
+            logger.debug("数据库指纹变化，淘汰该库的表结构、记录数和元数据缓存: {}", databaseName);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * 表的变更指纹（表数据分页）
+     * 由更新时间、创建时间、行数估计、数据量、自增值和列定义摘要组成；表不存在时返回null。
+     * 指纹变化时淘汰该表的结构、记录数和元数据缓存
+     */
+    public ChangeFingerprint getTableFingerprint(String databaseName, String tableName) {
+        String sql = "SELECT 1, t.UPDATE_TIME, t.CREATE_TIME, t.TABLE_ROWS, t.DATA_LENGTH, t.AUTO_INCREMENT, " +
+                    "(SELECT MD5(GROUP_CONCAT(c.COLUMN_NAME, ' ', c.COLUMN_TYPE ORDER BY c.ORDINAL_POSITION SEPARATOR ',')) " +
+                    "FROM information_schema.columns c WHERE c.TABLE_SCHEMA = t.TABLE_SCHEMA AND c.TABLE_NAME = t.TABLE_NAME) " +
+                    "FROM information_schema.tables t WHERE t.TABLE_SCHEMA = ? AND t.TABLE_NAME = ?";
+        ChangeFingerprint fingerprint = queryStatistics(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setString(1, databaseName);
+                statement.setString(2, tableName);
+                try (ResultSet rs = statement.executeQuery()) {
+                    return rs.next() ? toFingerprint(rs) : null;
+                }
+            }
+        });
+        if (fingerprint == null) {
+            return null;
+        }
+
+        if (fingerprintChanged(databaseName + "." + tableName, fingerprint)) {
+            String cacheKey = databaseName + "." + tableName;
+            tableStructureCache.remove(cacheKey + ".structure");
+            tableStructureCacheTime.remove(cacheKey + ".structure");
+            countCache.remove(cacheKey + ".count");
+            countCacheTime.remove(cacheKey + ".count");
+            metadataRegistry.invalidateTable(databaseName, tableName);
+            logger.debug("表指纹变化，淘汰结构、记录数和元数据缓存: {}", cacheKey);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * 在同一连接上关闭统计信息缓存后查询information_schema
+     * MySQL 8默认把UPDATE_TIME、TABLE_ROWS等缓存24小时，不关闭的话指纹几乎不会变化；
+     * MySQL 5.7没有该变量，直接读取即可。连接来自连接池，查询结束后把会话变量恢复为默认值
+     */
+    private <T> T queryStatistics(ConnectionCallback<T> action) {
+        return jdbcTemplate.execute((ConnectionCallback<T>) connection -> {
+            boolean statsExpirySet = false;
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET SESSION information_schema_stats_expiry = 0");
+                    statsExpirySet = true;
+                } catch (SQLException e) {
+                    logger.debug("不支持information_schema_stats_expiry: {}", e.getMessage());
+                }
+                try (Statement statement = connection.createStatement()) {
+                    // 列定义较多时避免GROUP_CONCAT被截断
+                    statement.execute("SET SESSION group_concat_max_len = 1048576");
+                }
+                return action.doInConnection(connection);
+            } finally {
+                try (Statement statement = connection.createStatement()) {
+                    if (statsExpirySet) {
+                        statement.execute("SET SESSION information_schema_stats_expiry = DEFAULT");
+                    }
+                    statement.execute("SET SESSION group_concat_max_len = DEFAULT");
+                } catch (SQLException e) {
+                    logger.warn("恢复会话变量失败: {}", e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * 第1列为计数，第2-6列依次为更新时间、创建时间、行数、数据量、自增值，第7列为列定义摘要
+     */
+    private ChangeFingerprint toFingerprint(ResultSet rs) throws SQLException {
+        Timestamp updateTime = rs.getTimestamp(2);
+        Timestamp createTime = rs.getTimestamp(3);
+        StringBuilder value = new StringBuilder();
+        for (int i = 1; i <= 7; i++) {
+            if (i > 1) {
+                value.append('|');
+            }
+            value.append(rs.getString(i));
+        }
+        // 没有UPDATE_TIME的表（如从未修改过）退回创建时间
+        Timestamp modified = updateTime != null ? updateTime : createTime;
+        return new ChangeFingerprint(value.toString(), modified != null ? modified.getTime() : null);
+    }
+
+    private boolean fingerprintChanged(String key, ChangeFingerprint fingerprint) {
+        String previous = knownFingerprints.put(key, fingerprint.getValue());
+        // 首次看到的指纹也视为变化：此前缓存的内容可能早于该指纹
+        return !fingerprint.getValue().equals(previous);
+    }
+
     /**
      * 导出表数据为CSV格式
      * 导出完整表数据，不分页
@@ -646,4 +1076,242 @@ public class DatabaseService {
             throw new RuntimeException("导出表数据失败: " + e.getMessage());
         }
     }
+
+    /**
+     * 以CBOR格式写出一页表数据
+     * 结构与JSON接口一致（success、data.columns、data.data……），另附data.columnTypes；
+     * 行值从结果集按列类型直接写出，附件列在每行末尾
+     */
+    public void writeTableDataCbor(String databaseName, String tableName, int limit, int offset,
+                                   OutputStream out) throws IOException {
+        long startTime = System.currentTimeMillis();
+        DataSource dataSource = databaseConfig.createDataSourceForDatabase(databaseName);
+        JdbcTemplate dbJdbcTemplate = new JdbcTemplate(dataSource);
+        dbJdbcTemplate.setFetchSize(STREAM_BATCH_SIZE);
+
+        List<String> columns = getCachedTableStructure(dbJdbcTemplate, databaseName, tableName);
+        int totalCount = getCachedTableCount(dbJdbcTemplate, databaseName, tableName);
+        List<String> enhancedColumns = new ArrayList<>(columns);
+        enhancedColumns.add("图片");
+        enhancedColumns.add("文本文件");
+
+        try (CBORGenerator generator = (CBORGenerator) cborMapper.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeBooleanField("success", true);
+            generator.writeFieldName("data");
+            generator.writeStartObject();
+            generator.writeObjectField("columns", enhancedColumns);
+
+            int rowCount = queryCbor(dbJdbcTemplate, buildOptimizedDataQuery(tableName, columns, limit, offset),
+                columns, "data", generator, new AttachmentRowHandler(generator, columns));
+
+            generator.writeNumberField("totalRows", rowCount);
+            generator.writeNumberField("totalCount", totalCount);
+            generator.writeNumberField("currentPage", offset / limit + 1);
+            generator.writeNumberField("pageSize", limit);
+            generator.writeBooleanField("hasNext", offset + limit < totalCount);
+            generator.writeBooleanField("hasPrevious", offset > 0);
+            generator.writeStringField("tableName", tableName);
+            generator.writeStringField("databaseName", databaseName);
+            generator.writeEndObject();
+            generator.writeEndObject();
+
+            logger.info("成功以CBOR输出表 {}.{} 的 {} 条数据, 耗时: {}ms", databaseName, tableName, rowCount,
+                    System.currentTimeMillis() - startTime);
+        }
+    }
+
+    /**
+     * 以CBOR格式流式导出完整表数据：{columns, columnTypes, rows: [[...], ...], rowCount}
+     * 行数组为不定长，边读结果集边写出，内存占用与表大小无关
+     */
+    public void exportTableDataCbor(String databaseName, String tableName, OutputStream out) throws IOException {
+        long startTime = System.currentTimeMillis();
+        DataSource dataSource = databaseConfig.createDataSourceForDatabase(databaseName);
+        JdbcTemplate dbJdbcTemplate = new JdbcTemplate(dataSource);
+        dbJdbcTemplate.setFetchSize(1000);
+        List<String> columns = getCachedTableStructure(dbJdbcTemplate, databaseName, tableName);
+
+        try (CBORGenerator generator = (CBORGenerator) cborMapper.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeObjectField("columns", columns);
+            int rowCount = queryCbor(dbJdbcTemplate, "SELECT * FROM `" + tableName + "`", columns, "rows", generator,
+                (rs, writer) -> writer.writeRow(rs));
+            generator.writeNumberField("rowCount", rowCount);
+            generator.writeEndObject();
+
+            logger.info("成功以CBOR导出表 {}.{}，共 {} 条记录, 耗时: {}ms", databaseName, tableName, rowCount,
+                    System.currentTimeMillis() - startTime);
+        }
+    }
+
+    @FunctionalInterface
+    private interface CborRowHandler {
+        void writeRow(ResultSet rs, CborResultSetWriter writer) throws SQLException, IOException;
+
+        /**
+         * 结果集读完、行数组结束之前调用
+         */
+        default void finish() throws IOException {
+        }
+    }
+
+    /**
+     * 表数据页的行写出：先把整页的行值缓冲下来并收集ID，读完后整页一次批量匹配附件（与JSON接口相同），
+     * 再逐行补上图片和文本文件两列写出。一页的行数受limit限制
+     */
+    private class AttachmentRowHandler implements CborRowHandler {
+        private final CBORGenerator generator;
+        private final List<String> columns;
+        private final List<TokenBuffer> rows = new ArrayList<>();
+        private final List<String> ids = new ArrayList<>();
+
+        AttachmentRowHandler(CBORGenerator generator, List<String> columns) {
+            this.generator = generator;
+            this.columns = columns;
+        }
+
+        @Override
+        public void writeRow(ResultSet rs, CborResultSetWriter writer) throws SQLException, IOException {
+            TokenBuffer row = new TokenBuffer(generator.getCodec(), false);
+            writer.writeValues(rs, row);
+            rows.add(row);
+            ids.add(getIdFromResultSet(rs, columns));
+        }
+
+        @Override
+        public void finish() throws IOException {
+            Map<String, String> imageMatches = ossService.batchMatchFiles(
+                ossService.getOssConfig().getImageBucketName(), ids, IMAGE_EXTENSIONS);
+            Map<String, String> textMatches = ossService.batchMatchFiles(
+                ossService.getOssConfig().getTextBucketName(), ids, TEXT_EXTENSIONS);
+
+            for (int i = 0; i < rows.size(); i++) {
+                String id = ids.get(i);
+                generator.writeStartArray(null, columns.size() + 2);
+                rows.get(i).serialize(generator);
+                generator.writeObject(buildAttachmentInfo(imageMatches.get(id)));
+                generator.writeObject(buildAttachmentInfo(textMatches.get(id)));
+                generator.writeEndArray();
+            }
+        }
+    }
+
+    /**
+     * 执行查询，写出columnTypes字段和名为rowsField的行数组，返回行数
+     */
+    private int queryCbor(JdbcTemplate dbJdbcTemplate, String sql, List<String> columns, String rowsField,
+                          CBORGenerator generator, CborRowHandler handler) throws IOException {
+        try {
+            Integer rowCount = dbJdbcTemplate.query(sql, (ResultSetExtractor<Integer>) rs -> {
+                try {
+                    CborResultSetWriter writer = new CborResultSetWriter(generator, rs, columns);
+                    generator.writeObjectField("columnTypes", writer.getColumnTypeNames());
+                    generator.writeFieldName(rowsField);
+                    generator.writeStartArray();
+                    int count = 0;
+                    while (rs.next()) {
+                        handler.writeRow(rs, writer);
+                        count++;
+                    }
+                    handler.finish();
+                    generator.writeEndArray();
+                    return count;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return rowCount != null ? rowCount : 0;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 从结果集当前行获取ID（与getIdFromRow规则相同）
+     */
+    private String getIdFromResultSet(ResultSet rs, List<String> columns) throws SQLException {
+        for (String field : new String[]{"id", "ID"}) {
+            if (columns.contains(field)) {
+                String value = rs.getString(field);
+                if (value != null && !value.trim().isEmpty()) {
+                    return value.trim();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 把完整表数据以CSV格式直接写入文本桶（可选gzip压缩）
+     * 按游标逐行读取结果集，编码后写入OSS分片上传流，不在内存或本地磁盘暂存整张表
+     *
+     * @return 导出结果（对象键、大小、分享链接）
+     */
+    public Map<String, Object> exportTableDataToOss(String databaseName, String tableName, boolean gzip) {
+        String bucketName = ossService.getOssConfig().getTextBucketName();
+        String timestamp = new java.text.SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+        String key = String.format("%s%s/%s/%s_%s.csv%s", ossService.getOssConfig().getExportPrefix(),
+                databaseName, tableName, tableName, timestamp, gzip ? ".gz" : "");
+
+        DataSource dataSource = databaseConfig.createDataSourceForDatabase(databaseName);
+        JdbcTemplate dbJdbcTemplate = new JdbcTemplate(dataSource);
+        dbJdbcTemplate.setFetchSize(1000);
+        List<String> columns = getCachedTableStructure(dbJdbcTemplate, databaseName, tableName);
+
+        long startTime = System.currentTimeMillis();
+        OssMultipartOutputStream upload = ossService.openMultipartUpload(
+                bucketName, key, gzip ? "application/gzip" : "text/csv; charset=utf-8");
+        long[] rowCount = {0};
+        try {
+            OutputStream target = gzip ? new GZIPOutputStream(upload, 64 * 1024) : upload;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 64 * 1024);
+            writer.write(String.join(",", columns));
+            writer.write('\n');
+
+            dbJdbcTemplate.query("SELECT * FROM `" + tableName + "`", (RowCallbackHandler) rs -> {
+                try {
+                    for (int i = 0; i < columns.size(); i++) {
+                        if (i > 0) {
+                            writer.write(',');
+                        }
+                        writer.write(toCsvCell(rs.getObject(columns.get(i))));
+                    }
+                    writer.write('\n');
+                    rowCount[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            // 只在全部写完后关闭：关闭即合并分片，出错时不能关闭以免留下不完整的文件
+            writer.close();
+        } catch (Exception e) {
+            upload.abort();
+            logger.error("导出表数据到OSS失败: {}.{} - {}", databaseName, tableName, e.getMessage());
+            throw new RuntimeException("导出表数据到OSS失败: " + e.getMessage());
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("bucket", bucketName);
+        result.put("key", key);
+        result.put("rowCount", rowCount[0]);
+        result.put("size", upload.getTotalBytes());
+        result.put("url", ossService.generateShareUrl(bucketName, key).toString());
+
+        logger.info("成功导出表 {}.{} 到OSS: {}, {} 条记录, 耗时: {}ms",
+                databaseName, tableName, key, rowCount[0], System.currentTimeMillis() - startTime);
+        return result;
+    }
+
+    /**
+     * 转换为CSV单元格（包含逗号、引号或换行时加引号转义）
+     */
+    private String toCsvCell(Object value) {
+        String cellValue = (value != null) ? value.toString() : "NULL";
+        if (cellValue.contains(",") || cellValue.contains("\"") || cellValue.contains("\n")) {
+            cellValue = "\"" + cellValue.replace("\"", "\"\"") + "\"";
+        }
+        return cellValue;
+    }
 }
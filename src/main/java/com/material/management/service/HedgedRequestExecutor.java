@@ -0,0 +1,235 @@
+package com.material.management.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * 对冲请求执行器
+ * 首个请求在按最近延迟分位数计算出的等待时间内没有返回时，再发出一个相同的请求，
+ * 谁先成功用谁，落败一方的结果交给discard回调释放（例如断开OSS连接）。
+ * 对冲次数受全局令牌桶限制：每个请求只积累ratio个令牌，对冲一次消耗一个，
+ * 因此额外请求量不会超过总请求量的ratio比例
+ *
+ * @author Material Management System
+ * @version 1.0.0
+ */
+public class HedgedRequestExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgedRequestExecutor.class);
+
+    // 每种操作保留的延迟样本数，以及开始按分位数对冲前至少需要的样本数
+    private static final int SAMPLE_SIZE = 512;
+    private static final int MIN_SAMPLES = 32;
+    // 令牌桶上限，允许短时间内集中对冲的次数
+    private static final double MAX_TOKENS = 10;
+
+    private final ExecutorService executor;
+    private final double percentile;
+    private final long minDelayMs;
+    private final long maxDelayMs;
+    private final double budgetRatio;
+    private final Map<String, LatencyTracker> trackers = new ConcurrentHashMap<>();
+
+    private double tokens;
+    private long hedgedCount;
+    private long hedgeWins;
+
+    public HedgedRequestExecutor(int threads, double percentile, long minDelayMs, long maxDelayMs, double budgetRatio) {
+        this.percentile = percentile;
+        this.minDelayMs = minDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.budgetRatio = budgetRatio;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "oss-hedge-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 执行可对冲的请求
+     *
+     * @param operation 操作类别，按类别分别统计延迟
+     * @param call      幂等的请求
+     * @param discard   落败请求的结果释放回调，可为null
+     */
+    public <T> T execute(String operation, Callable<T> call, Consumer<T> discard) throws Exception {
+        LatencyTracker tracker = trackers.computeIfAbsent(operation, key -> new LatencyTracker());
+        addTokens();
+
+        AtomicBoolean settled = new AtomicBoolean(false);
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        submit(call, tracker).whenComplete((result, error) ->
+                settle(winner, settled, pending, failure, result, error, discard, false));
+
+        long delay = tracker.hedgeDelay();
+        try {
+            return winner.get(delay, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (takeToken()) {
+                pending.incrementAndGet();
+                submit(call, tracker).whenComplete((result, error) ->
+                        settle(winner, settled, pending, failure, result, error, discard, true));
+                logger.debug("{} 请求超过 {}ms 未返回，发出对冲请求", operation, delay);
+            }
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            abandon(winner, discard);
+            throw e;
+        }
+
+        try {
+            return winner.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            abandon(winner, discard);
+            throw e;
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 对冲统计：发出的对冲请求数 / 对冲请求胜出次数
+     */
+    public synchronized String getStats() {
+        return hedgedCount + "/" + hedgeWins;
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> call, LatencyTracker tracker) {
+        return CompletableFuture.supplyAsync(() -> {
+            long startTime = System.nanoTime();
+            try {
+                T result = call.call();
+                tracker.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+                return result;
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * 第一个成功的结果胜出；全部失败时以真实的请求错误结束，
+     * 熔断拒绝（OpenException）只有在没有其他错误时才作为结果，避免掩盖真正的OSS错误
+     */
+    private <T> void settle(CompletableFuture<T> winner, AtomicBoolean settled, AtomicInteger pending,
+                            AtomicReference<Throwable> failure, T result, Throwable error,
+                            Consumer<T> discard, boolean hedge) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            failure.accumulateAndGet(cause, (previous, current) ->
+                    previous == null || previous instanceof CircuitBreaker.OpenException ? current : previous);
+        }
+        int remaining = pending.decrementAndGet();
+        if (error == null) {
+            if (settled.compareAndSet(false, true)) {
+                if (hedge) {
+                    synchronized (this) {
+                        hedgeWins++;
+                    }
+                }
+                // 调用方已放弃（winner被取消）时同样释放结果
+                if (!winner.complete(result) && discard != null && result != null) {
+                    discard.accept(result);
+                }
+            } else if (discard != null && result != null) {
+                discard.accept(result);
+            }
+        } else if (remaining == 0 && settled.compareAndSet(false, true)) {
+            winner.completeExceptionally(failure.get());
+        }
+    }
+
+    /**
+     * 调用方等待时被中断：已经到手的结果交给discard释放，并保留中断标记。
+     * 尚未完成的请求不取消（取消CompletableFuture不会中断请求，反而会丢掉之后到达的结果），
+     * 它们完成后由settle释放（winner已被取消，complete会失败）
+     */
+    private <T> void abandon(CompletableFuture<T> winner, Consumer<T> discard) {
+        Thread.currentThread().interrupt();
+        if (!winner.cancel(false) && !winner.isCompletedExceptionally() && discard != null) {
+            T result = winner.getNow(null);
+            if (result != null) {
+                discard.accept(result);
+            }
+        }
+    }
+
+    private synchronized void addTokens() {
+        tokens = Math.min(MAX_TOKENS, tokens + budgetRatio);
+    }
+
+    private synchronized boolean takeToken() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        hedgedCount++;
+        return true;
+    }
+
+    private Exception unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof Exception exception ? exception : e;
+    }
+
+    /**
+     * 最近若干次请求的延迟样本（环形缓冲）
+     */
+    private class LatencyTracker {
+        private final long[] samples = new long[SAMPLE_SIZE];
+        private int count;
+        private int next;
+        private long cachedDelay = maxDelayMs;
+        private int sinceRecompute;
+
+        synchronized void record(long latencyMillis) {
+            samples[next] = latencyMillis;
+            next = (next + 1) % SAMPLE_SIZE;
+            count = Math.min(count + 1, SAMPLE_SIZE);
+            // 每积累一批样本重新计算一次分位数
+            if (count >= MIN_SAMPLES && ++sinceRecompute >= MIN_SAMPLES) {
+                sinceRecompute = 0;
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                int index = (int) Math.min(count - 1, Math.ceil(percentile / 100.0 * count) - 1);
+                cachedDelay = Math.max(minDelayMs, Math.min(maxDelayMs, sorted[Math.max(0, index)]));
+            }
+        }
+
+        synchronized long hedgeDelay() {
+            return cachedDelay;
+        }
+    }
+}
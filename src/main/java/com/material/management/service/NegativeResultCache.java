@@ -0,0 +1,150 @@
+package com.material.management.service;
+
+import com.aliyun.oss.ClientException;
+import com.aliyun.oss.OSSException;
+
+import java.io.InterruptedIOException;
+import java.net.SocketException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 失败结果缓存
+ * 记录不存在的对象和处理失败的对象，在TTL内直接返回失败，不再访问OSS：
+ * 不存在使用固定的短TTL；失败按错误类别区分基础TTL（网络/服务端抖动较短，
+ * 图片无法解码、无权限等内容类错误较长），同一个key连续失败时TTL按指数增长直到上限。
+ * 条目数有硬上限，超出时淘汰最久未访问的条目（O(1)），大量未命中时也不会无限增长
+ *
+ * @author Material Management System
+ * @version 1.0.0
+ */
+public class NegativeResultCache {
+
+    /**
+     * 失败类别
+     */
+    public enum Kind {
+        MISSING,          // 对象不存在
+        TRANSIENT_ERROR,  // 网络超时、服务端错误等临时故障
+        PERMANENT_ERROR   // 内容无法处理、无权限等重试也不会成功的错误
+    }
+
+    private final long missingTtlMs;
+    private final long transientErrorTtlMs;
+    private final long permanentErrorTtlMs;
+    private final long maxTtlMs;
+    private final int maxEntries;
+
+    // 按访问顺序排列，队首为最久未访问
+    private final LinkedHashMap<String, Entry> entries;
+
+    public NegativeResultCache(long missingTtlMs, long transientErrorTtlMs, long permanentErrorTtlMs,
+                               long maxTtlMs, int maxEntries) {
+        this.missingTtlMs = missingTtlMs;
+        this.transientErrorTtlMs = transientErrorTtlMs;
+        this.permanentErrorTtlMs = permanentErrorTtlMs;
+        this.maxTtlMs = maxTtlMs;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > NegativeResultCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * key是否处于失败缓存期内
+     */
+    public synchronized boolean isBlocked(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return false;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            // 过期后保留条目（连续失败次数仍用于退避），只是不再拦截
+            return false;
+        }
+        return true;
+    }
+
+    public void recordMissing(String key) {
+        record(key, Kind.MISSING);
+    }
+
+    /**
+     * 记录失败，按异常类型决定退避时间
+     */
+    public void recordError(String key, Throwable error) {
+        record(key, classify(error));
+    }
+
+    /**
+     * 成功后清除记录
+     */
+    public synchronized void remove(String key) {
+        entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    static Kind classify(Throwable error) {
+        Throwable cause = error;
+        while (cause != null) {
+            if (cause instanceof OSSException ossException) {
+                if ("NoSuchKey".equals(ossException.getErrorCode())) {
+                    return Kind.MISSING;
+                }
+                return OssCallExecutor.isRetryable(ossException) ? Kind.TRANSIENT_ERROR : Kind.PERMANENT_ERROR;
+            }
+            if (cause instanceof ClientException || cause instanceof CircuitBreaker.OpenException
+                    || cause instanceof InterruptedIOException || cause instanceof SocketException
+                    || cause instanceof TimeoutException) {
+                return Kind.TRANSIENT_ERROR;
+            }
+            cause = cause.getCause();
+        }
+        // 其余异常多为图片解码、内容格式问题
+        return Kind.PERMANENT_ERROR;
+    }
+
+    private synchronized void record(String key, Kind kind) {
+        long now = System.currentTimeMillis();
+        Entry previous = entries.get(key);
+        int failures = previous != null && previous.kind == kind ? previous.failures + 1 : 1;
+        // 不存在的对象随时可能被上传，不做指数退避
+        long ttl = kind == Kind.MISSING ? missingTtlMs : baseTtl(kind) << Math.min(failures - 1, 20);
+        // 超出上限时由removeEldestEntry淘汰最久未访问的条目
+        entries.put(key, new Entry(kind, failures, now + Math.min(ttl, maxTtlMs)));
+    }
+
+    private long baseTtl(Kind kind) {
+        switch (kind) {
+            case MISSING:
+                return missingTtlMs;
+            case TRANSIENT_ERROR:
+                return transientErrorTtlMs;
+            default:
+                return permanentErrorTtlMs;
+        }
+    }
+
+    private static class Entry {
+        final Kind kind;
+        final int failures;
+        final long expiresAt;
+
+        Entry(Kind kind, int failures, long expiresAt) {
+            this.kind = kind;
+            this.failures = failures;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
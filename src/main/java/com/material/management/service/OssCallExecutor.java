@@ -0,0 +1,190 @@
+package com.material.management.service;
+
+import com.aliyun.oss.ClientException;
+import com.aliyun.oss.OSSException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * OSS调用执行器
+ * SDK内置重试已关闭，由这里统一处理：可重试的错误（网络异常、超时、服务端5xx/限流）
+ * 按带抖动的指数退避重试，重试耗尽后计入对应桶的熔断器；熔断期间直接快速失败
+ *
+ * @author Material Management System
+ * @version 1.0.0
+ */
+public class OssCallExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(OssCallExecutor.class);
+
+    // 服务端返回这些错误码时可以重试
+    private static final Set<String> RETRYABLE_ERROR_CODES = Set.of(
+            "InternalError", "ServiceUnavailable", "RequestTimeout", "SlowDown", "Throttling");
+
+    /**
+     * 单次OSS调用
+     */
+    @FunctionalInterface
+    public interface OssCall<T> {
+        T call();
+    }
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final int failureThreshold;
+    private final long openMillis;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public OssCallExecutor(int maxAttempts, long baseDelayMs, long maxDelayMs, int failureThreshold, long openMillis) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * 在指定桶的熔断器保护下执行调用
+     *
+     * @throws CircuitBreaker.OpenException 熔断中
+     */
+    public <T> T execute(String bucketName, OssCall<T> call) {
+        breaker(bucketName).acquire();
+        T result;
+        try {
+            result = executeAcquired(bucketName, call);
+        } catch (RuntimeException e) {
+            // 对象不存在、无权限等业务错误说明OSS本身是可用的
+            recordOutcome(bucketName, !isRetryable(e));
+            throw e;
+        }
+        recordOutcome(bucketName, true);
+        return result;
+    }
+
+    /**
+     * 以对冲方式执行一次逻辑调用：只占用一次熔断器放行名额（半开状态下即唯一的探测名额），
+     * 首发和对冲请求都不再单独检查或记录，最终按胜出（或全部失败）的结果记录一次。
+     * call内的OSS请求须通过executeAcquired发起
+     *
+     * @param hedger 对冲执行器，为null时直接执行
+     * @throws CircuitBreaker.OpenException 熔断中
+     */
+    public <T> T executeHedged(String bucketName, HedgedRequestExecutor hedger, String operation,
+                               Callable<T> call, Consumer<T> discard) throws Exception {
+        breaker(bucketName).acquire();
+        T result;
+        try {
+            result = hedger != null ? hedger.execute(operation, call, discard) : call.call();
+        } catch (RuntimeException e) {
+            recordOutcome(bucketName, !isRetryable(e));
+            throw e;
+        } catch (Exception e) {
+            // OSS已经响应，读取内容时出错（与execute的记录方式一致）；中断时同样要释放探测名额
+            recordOutcome(bucketName, true);
+            throw e;
+        }
+        recordOutcome(bucketName, true);
+        return result;
+    }
+
+    /**
+     * 在调用方已通过放行检查的前提下执行调用（只做重试，不检查也不记录熔断器）
+     */
+    public <T> T executeAcquired(String bucketName, OssCall<T> call) {
+        RuntimeException lastError = null;
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            if (attempt > 0 && !sleep(backoffDelay(attempt))) {
+                break;
+            }
+            try {
+                return call.call();
+            } catch (RuntimeException e) {
+                if (!isRetryable(e)) {
+                    throw e;
+                }
+                lastError = e;
+                logger.debug("OSS调用失败: {}, 第 {} 次, 错误: {}", bucketName, attempt + 1, e.getMessage());
+            }
+        }
+        throw lastError != null ? lastError : new ClientException("OSS调用被中断");
+    }
+
+    /**
+     * 记录未经execute发起的调用结果（如非阻塞接口通过预签名地址的访问）
+     */
+    public void recordOutcome(String bucketName, boolean success) {
+        CircuitBreaker breaker = breaker(bucketName);
+        if (success) {
+            breaker.recordSuccess();
+            return;
+        }
+        breaker.recordFailure();
+        if (breaker.getState() == CircuitBreaker.State.OPEN) {
+            logger.warn("OSS桶 {} 连续调用失败，熔断 {}ms", bucketName, openMillis);
+        }
+    }
+
+    /**
+     * 为未经execute发起的调用取得熔断器放行名额（与execute共用半开状态的探测名额），
+     * 返回true时调用方必须随后调用recordOutcome
+     */
+    public boolean tryAcquire(String bucketName) {
+        return breaker(bucketName).tryAcquire();
+    }
+
+    /**
+     * 指定桶当前是否可用（熔断期间返回false）
+     */
+    public boolean isAvailable(String bucketName) {
+        return breaker(bucketName).isAvailable();
+    }
+
+    /**
+     * 各桶熔断器状态
+     */
+    public Map<String, String> getBreakerStates() {
+        Map<String, String> states = new TreeMap<>();
+        breakers.forEach((bucket, breaker) -> states.put(bucket, breaker.getState().name()));
+        return states;
+    }
+
+    static boolean isRetryable(RuntimeException e) {
+        if (e instanceof OSSException ossException) {
+            return RETRYABLE_ERROR_CODES.contains(ossException.getErrorCode());
+        }
+        return e instanceof ClientException;
+    }
+
+    private CircuitBreaker breaker(String bucketName) {
+        return breakers.computeIfAbsent(bucketName,
+                name -> new CircuitBreaker("oss:" + name, failureThreshold, openMillis));
+    }
+
+    /**
+     * 全抖动指数退避：在 [0, min(max, base*2^attempt)] 内随机取值
+     */
+    private long backoffDelay(int attempt) {
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
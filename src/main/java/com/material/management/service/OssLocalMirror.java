@@ -0,0 +1,397 @@
+package com.material.management.service;
+
+import com.aliyun.oss.model.OSSObjectSummary;
+import com.aliyun.oss.model.ObjectMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * OSS桶的本地只读镜像
+ * 文件按 {桶}/{对象键} 存放在本地目录，未命中时由调用方回源OSS，同时在后台线程把对象拉取到本地；
+ * 总大小超过上限时按最近最少访问淘汰；定期用桶列举结果增量同步：
+ * 已删除的对象移除，大小或修改时间变化的对象作废并重新拉取
+ *
+ * @author Material Management System
+ * @version 1.0.0
+ */
+public class OssLocalMirror {
+
+    private static final Logger logger = LoggerFactory.getLogger(OssLocalMirror.class);
+
+    private static final String TEMP_DIR = ".tmp";
+    private static final int FILL_QUEUE_CAPACITY = 1000;
+
+    /**
+     * 把对象下载到指定文件；对象不存在或不适合镜像时返回null
+     */
+    @FunctionalInterface
+    public interface Filler {
+        ObjectMetadata fill(String bucketName, String key, Path target) throws Exception;
+    }
+
+    /**
+     * 镜像中的单个文件
+     */
+    public static class Entry {
+        private final Path path;
+        private final long size;
+        private final long lastModified;
+        private volatile String etag;
+
+        Entry(Path path, long size, long lastModified, String etag) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.etag = etag;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+
+    /**
+     * 已打开的镜像文件
+     * 打开后即使文件被同步删除、淘汰或重新拉取替换，读到的仍是打开时的版本，与entry的大小和ETag一致
+     */
+    public static final class Handle implements Closeable {
+        private final Entry entry;
+        private final FileChannel channel;
+
+        Handle(Entry entry, FileChannel channel) {
+            this.entry = entry;
+            this.channel = channel;
+        }
+
+        public Entry getEntry() {
+            return entry;
+        }
+
+        public FileChannel getChannel() {
+            return channel;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private final Path root;
+    private final Path tempDir;
+    private final long maxBytes;
+    private final Filler filler;
+    private final ExecutorService fillExecutor;
+    private final Set<String> filling = ConcurrentHashMap.newKeySet();
+
+    // 按访问顺序排列，队首为最久未访问
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long usedBytes;
+
+    public OssLocalMirror(String directory, long maxBytes, int fillThreads, Filler filler) {
+        this.root = Paths.get(directory).toAbsolutePath().normalize();
+        this.tempDir = root.resolve(TEMP_DIR);
+        this.maxBytes = maxBytes;
+        this.filler = filler;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.fillExecutor = new ThreadPoolExecutor(fillThreads, fillThreads, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(FILL_QUEUE_CAPACITY), r -> {
+                Thread thread = new Thread(r, "oss-mirror-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * 启动时加载本地已有的文件（ETag未知，等第一次同步校验后才对外提供）
+     */
+    public void loadExisting() throws IOException {
+        Files.createDirectories(root);
+        if (Files.exists(tempDir)) {
+            deleteRecursively(tempDir);
+        }
+        Files.createDirectories(tempDir);
+
+        List<Path> files = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                files.add(file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        synchronized (entries) {
+            for (Path file : files) {
+                Path relative = root.relativize(file);
+                if (relative.getNameCount() < 2) {
+                    continue;
+                }
+                String bucketName = relative.getName(0).toString();
+                String key = relative.subpath(1, relative.getNameCount()).toString().replace('\\', '/');
+                long size = Files.size(file);
+                entries.put(indexKey(bucketName, key),
+                    new Entry(file, size, Files.getLastModifiedTime(file).toMillis(), null));
+                usedBytes += size;
+            }
+            evictIfNeeded();
+        }
+        logger.info("本地镜像已加载: {} 个文件, {} 字节", entries.size(), usedBytes);
+    }
+
+    /**
+     * 查找镜像文件；未命中时安排后台拉取并返回null
+     */
+    public Entry lookup(String bucketName, String key) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(indexKey(bucketName, key));
+        }
+        if (entry != null && entry.etag != null && Files.exists(entry.path)) {
+            return entry;
+        }
+        if (entry == null) {
+            scheduleFill(bucketName, key);
+        }
+        return null;
+    }
+
+    /**
+     * 查找并打开镜像文件；expectedEtag不为null时只在版本一致时返回。
+     * 在entries锁内打开（删除、替换文件也在锁内进行），打开的内容与返回的条目一定对应。
+     * 未命中时安排后台拉取并返回null，版本不一致时返回null
+     */
+    public Handle open(String bucketName, String key, String expectedEtag) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(indexKey(bucketName, key));
+            if (entry != null && entry.etag != null
+                    && (expectedEtag == null || expectedEtag.equals(entry.etag))) {
+                try {
+                    return new Handle(entry, FileChannel.open(entry.path, StandardOpenOption.READ));
+                } catch (IOException e) {
+                    logger.debug("打开镜像文件失败: {}/{}, 错误: {}", bucketName, key, e.getMessage());
+                    return null;
+                }
+            }
+        }
+        if (entry == null) {
+            scheduleFill(bucketName, key);
+        }
+        return null;
+    }
+
+    /**
+     * 用桶列举结果增量同步
+     */
+    public void sync(String bucketName, List<OSSObjectSummary> summaries) {
+        Map<String, OSSObjectSummary> listed = new HashMap<>();
+        for (OSSObjectSummary summary : summaries) {
+            listed.put(indexKey(bucketName, summary.getKey()), summary);
+        }
+
+        List<String> refill = new ArrayList<>();
+        int removed = 0;
+        synchronized (entries) {
+            String prefix = bucketName + "/";
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Entry> mapping = iterator.next();
+                if (!mapping.getKey().startsWith(prefix)) {
+                    continue;
+                }
+                Entry entry = mapping.getValue();
+                OSSObjectSummary summary = listed.get(mapping.getKey());
+                if (summary != null && summary.getSize() == entry.size
+                        && summary.getLastModified().getTime() == entry.lastModified) {
+                    entry.etag = summary.getETag();
+                    continue;
+                }
+
+                // 对象已删除或已修改
+                iterator.remove();
+                usedBytes -= entry.size;
+                deleteQuietly(entry.path);
+                removed++;
+                if (summary != null) {
+                    refill.add(summary.getKey());
+                }
+            }
+        }
+
+        for (String key : refill) {
+            scheduleFill(bucketName, key);
+        }
+        logger.info("本地镜像同步完成: {}, 移除 {} 个, 重新拉取 {} 个", bucketName, removed, refill.size());
+    }
+
+    /**
+     * 对象被覆盖写入后作废本地副本，下次访问时重新拉取
+     */
+    public void invalidate(String bucketName, String key) {
+        synchronized (entries) {
+            Entry entry = entries.remove(indexKey(bucketName, key));
+            if (entry != null) {
+                usedBytes -= entry.size;
+                deleteQuietly(entry.path);
+            }
+        }
+    }
+
+    public void shutdown() {
+        fillExecutor.shutdownNow();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getUsedBytes() {
+        synchronized (entries) {
+            return usedBytes;
+        }
+    }
+
+    private void scheduleFill(String bucketName, String key) {
+        String indexKey = indexKey(bucketName, key);
+        if (!filling.add(indexKey)) {
+            return;
+        }
+        try {
+            fillExecutor.execute(() -> {
+                try {
+                    fill(bucketName, key);
+                } finally {
+                    filling.remove(indexKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            filling.remove(indexKey);
+            logger.debug("镜像拉取队列已满，跳过: {}/{}", bucketName, key);
+        }
+    }
+
+    private void fill(String bucketName, String key) {
+        Path tempFile = tempDir.resolve(UUID.randomUUID().toString());
+        try {
+            Path target = resolve(bucketName, key);
+            ObjectMetadata metadata = filler.fill(bucketName, key, tempFile);
+            if (metadata == null) {
+                return;
+            }
+
+            long size = Files.size(tempFile);
+            long lastModified = metadata.getLastModified().getTime();
+            Files.setLastModifiedTime(tempFile, FileTime.fromMillis(lastModified));
+            Files.createDirectories(target.getParent());
+
+            // 替换文件与更新条目在同一把锁内完成，open不会打开到与条目不一致的文件
+            synchronized (entries) {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Entry previous = entries.put(indexKey(bucketName, key),
+                    new Entry(target, size, lastModified, metadata.getETag()));
+                if (previous != null) {
+                    usedBytes -= previous.size;
+                }
+                usedBytes += size;
+                evictIfNeeded();
+            }
+            logger.debug("镜像拉取完成: {}/{}, {} 字节", bucketName, key, size);
+        } catch (Exception e) {
+            logger.warn("镜像拉取失败: {}/{}, 错误: {}", bucketName, key, e.getMessage());
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    /**
+     * 淘汰最久未访问的文件直到总大小不超过上限（调用方持有entries锁）
+     */
+    private void evictIfNeeded() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (usedBytes > maxBytes && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            iterator.remove();
+            usedBytes -= entry.size;
+            deleteQuietly(entry.path);
+        }
+    }
+
+    private Path resolve(String bucketName, String key) throws IOException {
+        Path path = root.resolve(bucketName).resolve(key).normalize();
+        if (!path.startsWith(root.resolve(bucketName)) || path.startsWith(tempDir)) {
+            throw new IOException("非法的文件名: " + key);
+        }
+        return path;
+    }
+
+    private static String indexKey(String bucketName, String key) {
+        return bucketName + "/" + key;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.debug("删除镜像文件失败: {}, 错误: {}", path, e.getMessage());
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
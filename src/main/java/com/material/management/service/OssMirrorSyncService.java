@@ -0,0 +1,60 @@
+package com.material.management.service;
+
+import com.aliyun.oss.model.OSSObjectSummary;
+import com.material.management.config.OssConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 本地镜像同步服务
+ * 定期列举图片桶和文本桶，把删除和修改同步到本地镜像，并顺便刷新文件列表缓存
+ *
+ * @author Material Management System
+ * @version 1.0.0
+ */
+@Service
+public class OssMirrorSyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OssMirrorSyncService.class);
+
+    @Autowired
+    private OssService ossService;
+
+    @Autowired
+    private OssConfig ossConfig;
+
+    /**
+     * 定时同步（启动后尽快执行一次，镜像中已有的文件在首次同步校验后才会使用）
+     */
+    @Scheduled(initialDelayString = "${oss.mirror-sync-initial-delay-ms:5000}",
+               fixedDelayString = "${oss.mirror-sync-interval-ms:300000}")
+    public void syncBuckets() {
+        if (!ossConfig.isMirrorEnabled()) {
+            return;
+        }
+        syncBucket(ossConfig.getImageBucketName());
+        syncBucket(ossConfig.getTextBucketName());
+    }
+
+    private void syncBucket(String bucketName) {
+        try {
+            List<OSSObjectSummary> summaries = ossService.listObjectSummaries(bucketName);
+            ossService.syncMirror(bucketName, summaries);
+
+            Set<String> keys = new HashSet<>();
+            for (OSSObjectSummary summary : summaries) {
+                keys.add(summary.getKey());
+            }
+            ossService.updateFileListCache(bucketName, keys);
+        } catch (Exception e) {
+            logger.error("本地镜像同步失败: {}, 错误: {}", bucketName, e.getMessage());
+        }
+    }
+}
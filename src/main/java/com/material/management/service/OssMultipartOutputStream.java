@@ -0,0 +1,203 @@
+package com.material.management.service;
+
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.model.AbortMultipartUploadRequest;
+import com.aliyun.oss.model.CompleteMultipartUploadRequest;
+import com.aliyun.oss.model.InitiateMultipartUploadRequest;
+import com.aliyun.oss.model.ObjectMetadata;
+import com.aliyun.oss.model.PartETag;
+import com.aliyun.oss.model.UploadPartRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * 写入OSS分片上传的输出流
+ * 写入的数据凑满一个分片就交给上传线程池并行上传，同时在途的分片数有上限，
+ * 超出时写入方阻塞等待（背压），内存占用不超过 (在途分片数+1)×分片大小，不落本地磁盘；
+ * close时等待全部分片完成并合并，任何分片失败则取消整个上传
+ *
+ * @author Material Management System
+ * @version 1.0.0
+ */
+public class OssMultipartOutputStream extends OutputStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(OssMultipartOutputStream.class);
+
+    private final OSS ossClient;
+    private final OssCallExecutor callExecutor;
+    private final ExecutorService uploadExecutor;
+    private final String bucketName;
+    private final String key;
+    private final String uploadId;
+    private final int partSize;
+
+    // 空闲分片缓冲区，数量即在途分片上限
+    private final BlockingQueue<byte[]> freeBuffers;
+    private final List<Future<PartETag>> parts = new ArrayList<>();
+
+    private byte[] current;
+    private int position;
+    private long totalBytes;
+    private volatile Throwable failure;
+    private boolean closed;
+
+    public OssMultipartOutputStream(OSS ossClient, OssCallExecutor callExecutor, ExecutorService uploadExecutor,
+                                    String bucketName, String key, ObjectMetadata metadata,
+                                    int partSize, int maxInFlight) {
+        this.ossClient = ossClient;
+        this.callExecutor = callExecutor;
+        this.uploadExecutor = uploadExecutor;
+        this.bucketName = bucketName;
+        this.key = key;
+        this.partSize = partSize;
+        this.freeBuffers = new ArrayBlockingQueue<>(maxInFlight + 1);
+        for (int i = 0; i <= maxInFlight; i++) {
+            freeBuffers.add(new byte[partSize]);
+        }
+        this.uploadId = callExecutor.execute(bucketName, () -> ossClient.initiateMultipartUpload(
+            new InitiateMultipartUploadRequest(bucketName, key, metadata)).getUploadId());
+        this.current = freeBuffers.poll();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (position == partSize) {
+            submitPart();
+        }
+        current[position++] = (byte) b;
+        totalBytes++;
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        ensureOpen();
+        while (length > 0) {
+            if (position == partSize) {
+                submitPart();
+            }
+            int chunk = Math.min(length, partSize - position);
+            System.arraycopy(data, offset, current, position, chunk);
+            position += chunk;
+            offset += chunk;
+            length -= chunk;
+            totalBytes += chunk;
+        }
+    }
+
+    /**
+     * 上传最后一个分片，等待全部完成后合并
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            if (position > 0 || parts.isEmpty()) {
+                submitPart();
+            }
+            List<PartETag> partETags = new ArrayList<>();
+            for (Future<PartETag> part : parts) {
+                partETags.add(part.get());
+            }
+            partETags.sort(Comparator.comparingInt(PartETag::getPartNumber));
+            callExecutor.execute(bucketName, () -> ossClient.completeMultipartUpload(
+                new CompleteMultipartUploadRequest(bucketName, key, uploadId, partETags)));
+            closed = true;
+            logger.info("分片上传完成: {}/{}, {} 个分片, {} 字节", bucketName, key, partETags.size(), totalBytes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort();
+            throw new IOException("分片上传被中断: " + key, e);
+        } catch (ExecutionException e) {
+            abort();
+            throw new IOException("分片上传失败: " + key, e.getCause());
+        } catch (RuntimeException e) {
+            abort();
+            throw new IOException("合并分片失败: " + key, e);
+        }
+    }
+
+    /**
+     * 取消上传，已上传的分片由OSS清理
+     */
+    public void abort() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Future<PartETag> part : parts) {
+            part.cancel(true);
+        }
+        try {
+            ossClient.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, key, uploadId));
+            logger.info("分片上传已取消: {}/{}", bucketName, key);
+        } catch (Exception e) {
+            logger.warn("取消分片上传失败: {}/{}, 错误: {}", bucketName, key, e.getMessage());
+        }
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private void submitPart() throws IOException {
+        byte[] buffer = current;
+        int length = position;
+        int partNumber = parts.size() + 1;
+
+        parts.add(uploadExecutor.submit(() -> {
+            try {
+                // 每次重试都重新构造请求，输入流不能复用
+                return callExecutor.execute(bucketName, () -> ossClient.uploadPart(new UploadPartRequest(
+                    bucketName, key, uploadId, partNumber, new ByteArrayInputStream(buffer, 0, length), length)))
+                    .getPartETag();
+            } catch (RuntimeException e) {
+                failure = e;
+                throw e;
+            } finally {
+                freeBuffers.offer(buffer);
+            }
+        }));
+
+        // 等待空闲缓冲区：在途分片已满时在这里阻塞
+        try {
+            current = freeBuffers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("分片上传被中断: " + key, e);
+        }
+        position = 0;
+        checkFailure();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("分片上传已结束: " + key);
+        }
+        checkFailure();
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("分片上传失败: " + key, failure);
+        }
+    }
+}
@@ -1,28 +1,72 @@
 package com.material.management.service;
 
+import com.aliyun.oss.ClientBuilderConfiguration;
+import com.aliyun.oss.ClientException;
+import com.aliyun.oss.HttpMethod;
 import com.aliyun.oss.OSS;
 import com.aliyun.oss.OSSClientBuilder;
+import com.aliyun.oss.OSSException;
+import com.aliyun.oss.internal.OSSHeaders;
+import com.aliyun.oss.model.GeneratePresignedUrlRequest;
+import com.aliyun.oss.model.GetObjectRequest;
+import com.aliyun.oss.model.ListObjectsRequest;
 import com.aliyun.oss.model.OSSObject;
 import com.aliyun.oss.model.ObjectListing;
+import com.aliyun.oss.model.ObjectMetadata;
 import com.aliyun.oss.model.OSSObjectSummary;
+import com.aliyun.oss.model.UploadFileRequest;
 import com.material.management.config.OssConfig;
-import net.coobird.thumbnailator.Thumbnails;
+import com.material.management.model.WarmStartSnapshot;
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 /**
  * OSS服务类
@@ -41,24 +85,138 @@ public class OssService {
     private OSS ossClient;
 
     // 缓存机制
-    private final ConcurrentHashMap<String, String> thumbnailCache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, byte[]> thumbnailCache = new ConcurrentHashMap<>();
+    // 内存缩略图最近一次被使用的时间，预热快照按此挑选热点
+    private final ConcurrentHashMap<String, Long> thumbnailLastUsed = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, String> textPreviewCache = new ConcurrentHashMap<>();
+    private final Set<String> nonTextPreviewCache = ConcurrentHashMap.newKeySet();
     private final ConcurrentHashMap<String, Boolean> fileExistenceCache = new ConcurrentHashMap<>();
+    // 不存在或处理失败的文件，在TTL内不再访问OSS（初始化时按配置创建）
+    private NegativeResultCache negativeCache;
+    private final ConcurrentHashMap<String, CsvRowIndex> csvRowIndexCache = new ConcurrentHashMap<>();
 
     // 文件列表缓存 - 用于批量匹配优化
     private final Map<String, Set<String>> bucketFileListCache = new ConcurrentHashMap<>();
     private final Map<String, Long> bucketFileListCacheTime = new ConcurrentHashMap<>();
     private static final long FILE_LIST_CACHE_DURATION = 5 * 60 * 1000; // 5分钟缓存
+    // 文件列表内容的摘要（各文件名哈希之和，与顺序无关），参与表数据分页的ETag计算；
+    // 只由列表内容决定，重启后和不同实例之间保持一致
+    private final Map<String, Long> bucketFileListDigest = new ConcurrentHashMap<>();
+
+    // 流式下载的缓冲区大小
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    // 批量预览并发拉取线程池
+    private ExecutorService batchExecutor;
+
+    // 附件打包下载时打开OSS对象的线程池
+    private ExecutorService zipExecutor;
+
+    // 分片上传线程池
+    private ExecutorService uploadExecutor;
+
+    // 正在上传的对象（桶:文件名），同一对象不允许并发上传
+    private final Set<String> uploadsInProgress = ConcurrentHashMap.newKeySet();
+
+    // 缩略图生成工作线程池（限制同时解码的图片数量）
+    private ThumbnailWorkerPool<Map<Integer, byte[]>> thumbnailWorkerPool;
+
+    // 缩略图衍生文件存储（本地目录或桶内前缀）
+    private ThumbnailStore thumbnailStore;
+
+    // 大对象并行分段读取
+    private ParallelRangeReader parallelRangeReader;
+
+    // OSS调用的重试与按桶熔断
+    private OssCallExecutor ossCallExecutor;
+
+    // 小对象读取的对冲请求（未启用时为null）
+    private HedgedRequestExecutor hedgedRequestExecutor;
+
+    // 本地镜像（未启用时为null）
+    private OssLocalMirror localMirror;
+
+    // 熔断期间文本预览的占位内容（不缓存）
+    private static final String TEXT_PREVIEW_UNAVAILABLE = "（文件服务暂时不可用）";
+
+    // 图片最后修改时间索引（由后台预生成的桶列举维护），用于判断衍生文件是否过期
+    private final Map<String, Long> imageLastModifiedIndex = new ConcurrentHashMap<>();
+
+    /**
+     * 批量预览结果回调（每完成一项调用一次）
+     */
+    @FunctionalInterface
+    public interface PreviewItemConsumer {
+        void accept(Map<String, Object> item) throws IOException;
+    }
     
     @PostConstruct
     public void init() {
+        // 进程级设置：缩略图编码由Thumbnailator自行创建ImageOutputStream，
+        // 关闭ImageIO磁盘缓存后在内存中缓冲，不在临时目录写缓存文件
+        ImageIO.setUseCache(false);
+        negativeCache = new NegativeResultCache(ossConfig.getNegativeMissingTtlMs(),
+            ossConfig.getNegativeTransientErrorTtlMs(), ossConfig.getNegativePermanentErrorTtlMs(),
+            ossConfig.getNegativeMaxTtlMs(), ossConfig.getNegativeMaxEntries());
+        AtomicInteger threadIndex = new AtomicInteger();
+        batchExecutor = Executors.newFixedThreadPool(ossConfig.getBatchConcurrency(), r -> {
+            Thread thread = new Thread(r, "oss-batch-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger zipThreadIndex = new AtomicInteger();
+        zipExecutor = Executors.newFixedThreadPool(ossConfig.getZipConcurrency(), r -> {
+            Thread thread = new Thread(r, "oss-zip-" + zipThreadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger uploadThreadIndex = new AtomicInteger();
+        uploadExecutor = Executors.newFixedThreadPool(ossConfig.getUploadConcurrency(), r -> {
+            Thread thread = new Thread(r, "oss-upload-" + uploadThreadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        thumbnailWorkerPool = new ThumbnailWorkerPool<>(
+            ossConfig.getThumbnailWorkers(), ossConfig.getThumbnailQueueCapacity());
+
+        ossCallExecutor = new OssCallExecutor(ossConfig.getRetryMaxAttempts(), ossConfig.getRetryBaseDelayMs(),
+            ossConfig.getRetryMaxDelayMs(), ossConfig.getBreakerFailureThreshold(), ossConfig.getBreakerOpenMs());
+        if (ossConfig.isHedgeEnabled()) {
+            hedgedRequestExecutor = new HedgedRequestExecutor(ossConfig.getHedgeThreads(), ossConfig.getHedgePercentile(),
+                ossConfig.getHedgeMinDelayMs(), ossConfig.getHedgeMaxDelayMs(), ossConfig.getHedgeBudgetRatio());
+        }
+
         try {
             ossClient = new OSSClientBuilder().build(
                 "https://" + ossConfig.getEndpoint(),
                 ossConfig.getAccessKeyId(),
-                ossConfig.getAccessKeySecret()
+                ossConfig.getAccessKeySecret(),
+                buildClientConfiguration()
             );
             logger.info("OSS客户端初始化成功");
+
+            if ("oss".equalsIgnoreCase(ossConfig.getDerivativeStore())) {
+                thumbnailStore = ThumbnailStore.oss(
+                    ossClient, ossConfig.getImageBucketName(), ossConfig.getDerivativePrefix());
+            } else {
+                thumbnailStore = ThumbnailStore.local(ossConfig.getDerivativeLocalDir());
+            }
+            logger.info("缩略图衍生存储: {}", ossConfig.getDerivativeStore());
+
+            parallelRangeReader = new ParallelRangeReader(ossClient, ossCallExecutor, ossConfig.getParallelThreads(),
+                ossConfig.getParallelPartSizeBytes(), ossConfig.getParallelWindow(), ossConfig.getParallelPartRetries());
+
+            if (ossConfig.isMirrorEnabled()) {
+                OssLocalMirror mirror = new OssLocalMirror(ossConfig.getMirrorDir(), ossConfig.getMirrorMaxBytes(),
+                    ossConfig.getMirrorFillThreads(), this::fillMirror);
+                try {
+                    mirror.loadExisting();
+                    localMirror = mirror;
+                } catch (IOException e) {
+                    mirror.shutdown();
+                    logger.error("本地镜像目录不可用，镜像未启用: {}", e.getMessage());
+                }
+            }
         } catch (Exception e) {
             logger.error("OSS客户端初始化失败: {}", e.getMessage());
         }
@@ -66,74 +224,597 @@ public class OssService {
     
     @PreDestroy
     public void destroy() {
+        if (batchExecutor != null) {
+            batchExecutor.shutdownNow();
+        }
+        if (zipExecutor != null) {
+            zipExecutor.shutdownNow();
+        }
+        if (uploadExecutor != null) {
+            uploadExecutor.shutdownNow();
+        }
+        if (thumbnailWorkerPool != null) {
+            thumbnailWorkerPool.shutdown();
+        }
+        if (parallelRangeReader != null) {
+            parallelRangeReader.shutdown();
+        }
+        if (hedgedRequestExecutor != null) {
+            hedgedRequestExecutor.shutdown();
+        }
+        if (localMirror != null) {
+            localMirror.shutdown();
+        }
         if (ossClient != null) {
             ossClient.shutdown();
             logger.info("OSS客户端已关闭");
         }
     }
+
+    /**
+     * OSS客户端连接池与超时配置；SDK内置重试关闭，统一由OssCallExecutor重试
+     */
+    private ClientBuilderConfiguration buildClientConfiguration() {
+        ClientBuilderConfiguration configuration = new ClientBuilderConfiguration();
+        configuration.setMaxConnections(ossConfig.getMaxConnections());
+        configuration.setConnectionTimeout(ossConfig.getConnectionTimeoutMs());
+        configuration.setSocketTimeout(ossConfig.getSocketTimeoutMs());
+        configuration.setConnectionRequestTimeout(ossConfig.getConnectionRequestTimeoutMs());
+        configuration.setIdleConnectionTime(ossConfig.getIdleConnectionTimeMs());
+        configuration.setUseReaper(true);
+        configuration.setMaxErrorRetry(0);
+        return configuration;
+    }
     
     /**
      * 获取图片缩略图的Base64编码（带缓存和超时处理）
      */
     public String getImageThumbnailBase64(String fileName) {
-        // 先检查缓存
-        String cached = thumbnailCache.get(fileName);
-        if (cached != null) {
-            logger.debug("从缓存获取图片缩略图: {}", fileName);
-            return cached;
+        return getImageThumbnailBase64(fileName, ThumbnailWorkerPool.Priority.VIEWPORT);
+    }
+
+    /**
+     * 获取表格用的基础尺寸缩略图的Base64编码
+     */
+    public String getImageThumbnailBase64(String fileName, ThumbnailWorkerPool.Priority priority) {
+        return getImageThumbnailBase64(fileName, ossConfig.getThumbnailWidth(), priority);
+    }
+
+    /**
+     * 获取最接近指定宽度的缩略图的Base64编码
+     */
+    public String getImageThumbnailBase64(String fileName, int width, ThumbnailWorkerPool.Priority priority) {
+        byte[] thumbnail = getImageThumbnail(fileName, width, priority);
+        return thumbnail != null ? toThumbnailDataUri(thumbnail) : null;
+    }
+
+    /**
+     * 获取最接近指定宽度的缩略图（金字塔中不小于该宽度的最小一级）
+     * 生成工作交给缩略图线程池按优先级执行，一次解码生成全部尺寸；
+     * 调用线程只负责等待，等待超时或被中断（客户端断开）时放弃任务
+     */
+    public byte[] getImageThumbnail(String fileName, int width, ThumbnailWorkerPool.Priority priority) {
+        int level = selectThumbnailLevel(width);
+        boolean baseLevel = level == ossConfig.getThumbnailWidth();
+
+        // 先检查缓存（内存中只保留基础尺寸，大尺寸从衍生存储读取）
+        if (baseLevel) {
+            byte[] cached = thumbnailCache.get(fileName);
+            if (cached != null) {
+                logger.debug("从缓存获取图片缩略图: {}", fileName);
+                touchThumbnail(fileName);
+                return cached;
+            }
+        }
+
+        // 本地镜像中有原图时不依赖OSS：按镜像的修改时间校验衍生文件，缺失时从镜像生成
+        OssLocalMirror.Entry mirrorEntry = mirrorEntry(ossConfig.getImageBucketName(), fileName);
+
+        // OSS熔断且镜像中没有原图时不再访问原图，只返回已有的衍生文件（可能已过期）
+        if (mirrorEntry == null && !ossCallExecutor.isAvailable(ossConfig.getImageBucketName())) {
+            logger.debug("OSS熔断中，尝试返回已有缩略图: {}", fileName);
+            return thumbnailStore.read(fileName, thumbnailVariant(level), 0L);
         }
 
         // 检查文件是否存在（使用缓存）
-        if (!doesImageExist(fileName)) {
+        if (mirrorEntry == null && !doesImageExist(fileName)) {
             logger.debug("图片文件不存在: {}", fileName);
             return null;
         }
 
-        try {
-            logger.debug("开始生成图片缩略图: {}", fileName);
-            long startTime = System.currentTimeMillis();
+        // 最近生成失败过的图片在退避期内不再重试
+        if (negativeCache.isBlocked(thumbnailFailureKey(fileName))) {
+            logger.debug("图片缩略图近期生成失败，跳过: {}", fileName);
+            return null;
+        }
 
-            OSSObject ossObject = ossClient.getObject(ossConfig.getImageBucketName(), fileName);
-            InputStream inputStream = ossObject.getObjectContent();
+        // 检查预生成的衍生文件
+        long sourceLastModified = mirrorEntry != null
+                ? mirrorEntry.getLastModified() : imageLastModifiedIndex.getOrDefault(fileName, 0L);
+        byte[] stored = thumbnailStore.read(fileName, thumbnailVariant(level), sourceLastModified);
+        if (stored != null) {
+            if (baseLevel) {
+                cacheThumbnail(fileName, stored);
+            }
+            logger.debug("从衍生存储获取图片缩略图: {} [{}]", fileName, level);
+            return stored;
+        }
 
-            // 生成缩略图
-            ByteArrayOutputStream thumbnailOutput = new ByteArrayOutputStream();
-            Thumbnails.of(inputStream)
-                    .size(ossConfig.getThumbnailWidth(), ossConfig.getThumbnailHeight())
-                    .outputFormat(ossConfig.getThumbnailFormat())
-                    .toOutputStream(thumbnailOutput);
+        ThumbnailWorkerPool.Ticket<Map<Integer, byte[]>> ticket;
+        try {
+            ticket = thumbnailWorkerPool.submit(fileName, priority, () -> generateThumbnails(fileName));
+        } catch (RejectedExecutionException e) {
+            logger.warn("缩略图队列已满，拒绝生成: {}", fileName);
+            return null;
+        }
 
-            // 转换为Base64
-            byte[] thumbnailBytes = thumbnailOutput.toByteArray();
-            String base64 = Base64.getEncoder().encodeToString(thumbnailBytes);
-            String result = "data:image/" + ossConfig.getThumbnailFormat() + ";base64," + base64;
+        try {
+            Map<Integer, byte[]> thumbnails = ticket.await(ossConfig.getThumbnailWaitTimeoutMs());
+            if (thumbnails == null) {
+                return null;
+            }
+            // 内存缓存只保留页面实际请求过的缩略图，后台预生成只写衍生存储
+            if (priority != ThumbnailWorkerPool.Priority.BACKGROUND) {
+                cacheThumbnail(fileName, thumbnails.get(ossConfig.getThumbnailWidth()));
+            }
+            return thumbnails.get(level);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.debug("等待缩略图被中断: {}", fileName);
+            return null;
+        } catch (TimeoutException e) {
+            logger.warn("等待缩略图超时: {}", fileName);
+            return null;
+        } catch (ExecutionException | CancellationException e) {
+            logger.debug("缩略图任务未完成: {}, 原因: {}", fileName, e.getMessage());
+            return null;
+        } finally {
+            ticket.release();
+        }
+    }
 
-            inputStream.close();
-            thumbnailOutput.close();
+    /**
+     * 从OSS读取原图，一次采样解码后逐级生成所有尺寸的缩略图（在缩略图工作线程中执行）
+     */
+    private Map<Integer, byte[]> generateThumbnails(String fileName) {
+        try {
+            logger.debug("开始生成图片缩略图: {}", fileName);
+            long startTime = System.currentTimeMillis();
 
-            // 缓存结果
-            thumbnailCache.put(fileName, result);
+            Map<Integer, byte[]> thumbnails;
+            try (InputStream inputStream = openObject("thumbnail-source", ossConfig.getImageBucketName(), fileName)) {
+                thumbnails = renderThumbnails(inputStream);
+            }
+            storeThumbnails(fileName, thumbnails);
 
             long endTime = System.currentTimeMillis();
-            logger.debug("图片缩略图生成完成: {}, 耗时: {}ms", fileName, endTime - startTime);
+            logger.debug("图片缩略图生成完成: {}, {} 个尺寸, 耗时: {}ms", fileName, thumbnails.size(), endTime - startTime);
 
-            return result;
+            return thumbnails;
 
         } catch (Exception e) {
             logger.error("获取图片缩略图失败: {}, 错误: {}", fileName, e.getMessage());
-            // 缓存失败结果，避免重复尝试
-            thumbnailCache.put(fileName, null);
+            // 记录失败结果，退避期内不再重复尝试
+            negativeCache.recordError(thumbnailFailureKey(fileName), e);
             return null;
         }
     }
-    
+
+    /**
+     * 按最大一级的尺寸采样解码原图，再从大到小逐级缩放编码（每一级以上一级为源）
+     */
+    private Map<Integer, byte[]> renderThumbnails(InputStream inputStream) throws IOException {
+        List<Integer> levels = getThumbnailLevels();
+        int largest = levels.get(levels.size() - 1);
+
+        // 内存中只保留接近最大一级尺寸的像素
+        BufferedImage image = ThumbnailGenerator.decodeSubsampled(inputStream, largest, levelHeight(largest));
+
+        Map<Integer, byte[]> thumbnails = new HashMap<>();
+        for (int i = levels.size() - 1; i >= 0; i--) {
+            int level = levels.get(i);
+            image = ThumbnailGenerator.scale(image, level, levelHeight(level));
+            thumbnails.put(level, ThumbnailGenerator.encode(image, ossConfig.getThumbnailFormat()));
+        }
+        return thumbnails;
+    }
+
+    /**
+     * 把各级缩略图写入衍生存储（不放入内存缓存：后台预生成会覆盖整个桶）
+     */
+    private void storeThumbnails(String fileName, Map<Integer, byte[]> thumbnails) {
+        thumbnails.forEach((level, thumbnailBytes) -> thumbnailStore.write(fileName, thumbnailVariant(level), thumbnailBytes));
+        negativeCache.remove(thumbnailFailureKey(fileName));
+    }
+
+    /**
+     * 后台预生成单个图片的全部尺寸缩略图（衍生文件已是最新时跳过）
+     *
+     * @return 衍生文件是否已就绪（原本就是最新或本次生成成功）；需要生成时在完成后才结束，不阻塞调用线程。
+     *         缩略图队列已满时以RejectedExecutionException失败，调用方应稍后重新提交
+     */
+    public CompletableFuture<Boolean> pregenerateThumbnail(OSSObjectSummary summary) {
+        String fileName = summary.getKey();
+        // 修改时间未知时不能判断衍生文件是否最新，按过期处理重新生成
+        boolean known = summary.getLastModified() != null;
+        long lastModified = known ? summary.getLastModified().getTime() : 0L;
+        Long previous = known ? imageLastModifiedIndex.put(fileName, lastModified) : null;
+
+        if (!known || (previous != null && previous != lastModified)) {
+            // 原图已变化，内存中的旧缩略图和失败记录都失效
+            removeCachedThumbnail(fileName);
+            negativeCache.remove(thumbnailFailureKey(fileName));
+        }
+        boolean fresh = known;
+        if (known) {
+            for (int level : getThumbnailLevels()) {
+                if (!thumbnailStore.isFresh(fileName, thumbnailVariant(level), lastModified)) {
+                    fresh = false;
+                    break;
+                }
+            }
+        }
+        if (fresh) {
+            return CompletableFuture.completedFuture(true);
+        }
+        if (negativeCache.isBlocked(thumbnailFailureKey(fileName))) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        ThumbnailWorkerPool.Ticket<Map<Integer, byte[]>> ticket;
+        try {
+            ticket = thumbnailWorkerPool.submit(fileName, ThumbnailWorkerPool.Priority.BACKGROUND,
+                    () -> generateThumbnails(fileName));
+        } catch (RejectedExecutionException e) {
+            logger.debug("缩略图队列繁忙，推迟预生成: {}", fileName);
+            return CompletableFuture.failedFuture(e);
+        }
+
+        // 超时后释放句柄，仍在排队的任务随之丢弃
+        return ticket.toFuture()
+                .orTimeout(ossConfig.getPregenerateTimeoutMs(), TimeUnit.MILLISECONDS)
+                .handle((thumbnails, error) -> {
+                    ticket.release();
+                    if (error != null) {
+                        logger.debug("预生成缩略图未完成: {}, 原因: {}", fileName, error.getMessage());
+                        return false;
+                    }
+                    return thumbnails != null;
+                });
+    }
+
+    /**
+     * 缩略图金字塔的各级宽度（升序，总是包含基础尺寸thumbnailWidth）
+     */
+    public List<Integer> getThumbnailLevels() {
+        TreeSet<Integer> levels = new TreeSet<>(ossConfig.getThumbnailSizes());
+        levels.add(ossConfig.getThumbnailWidth());
+        return new ArrayList<>(levels);
+    }
+
+    /**
+     * 选择不小于请求宽度的最小一级；请求超过最大一级时返回最大一级
+     */
+    private int selectThumbnailLevel(int width) {
+        List<Integer> levels = getThumbnailLevels();
+        if (width <= 0) {
+            return ossConfig.getThumbnailWidth();
+        }
+        for (int level : levels) {
+            if (level >= width) {
+                return level;
+            }
+        }
+        return levels.get(levels.size() - 1);
+    }
+
+    /**
+     * 各级高度按基础尺寸的宽高比换算
+     */
+    private int levelHeight(int level) {
+        return (int) Math.round((double) level * ossConfig.getThumbnailHeight() / ossConfig.getThumbnailWidth());
+    }
+
+    /**
+     * 缩略图规格，用作衍生存储目录名
+     */
+    private String thumbnailVariant(int level) {
+        return level + "x" + levelHeight(level) + "." + ossConfig.getThumbnailFormat();
+    }
+
+    /**
+     * 缩略图的MIME类型
+     */
+    public String getThumbnailContentType() {
+        return getMimeType("thumbnail." + ossConfig.getThumbnailFormat());
+    }
+
+    /**
+     * 内存中已缓存的缩略图（只有基础尺寸常驻内存，不访问OSS和衍生存储）
+     */
+    public byte[] getCachedThumbnail(String fileName, int width) {
+        if (selectThumbnailLevel(width) != ossConfig.getThumbnailWidth()) {
+            return null;
+        }
+        byte[] cached = thumbnailCache.get(fileName);
+        if (cached != null) {
+            touchThumbnail(fileName);
+        }
+        return cached;
+    }
+
+    private void cacheThumbnail(String fileName, byte[] thumbnail) {
+        if (thumbnail != null) {
+            thumbnailCache.put(fileName, thumbnail);
+            touchThumbnail(fileName);
+        }
+    }
+
+    private void touchThumbnail(String fileName) {
+        thumbnailLastUsed.put(fileName, System.currentTimeMillis());
+    }
+
+    private void removeCachedThumbnail(String fileName) {
+        thumbnailCache.remove(fileName);
+        thumbnailLastUsed.remove(fileName);
+    }
+
+    /**
+     * 由OSS图片处理直接生成缩略图的预签名地址（尺寸和格式与缩略图金字塔的对应一级相同）
+     */
+    public URL presignThumbnailUrl(String fileName, int width) {
+        int level = selectThumbnailLevel(width);
+        GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest(
+            ossConfig.getImageBucketName(), fileName, HttpMethod.GET);
+        request.setExpiration(new Date(System.currentTimeMillis() + ossConfig.getNbPresignExpireSeconds() * 1000));
+        request.setProcess(String.format("image/resize,m_lfit,w_%d,h_%d/format,%s",
+            level, levelHeight(level), ossConfig.getThumbnailFormat()));
+        return ossClient.generatePresignedUrl(request);
+    }
+
+    /**
+     * 短时有效的GET预签名地址（供非阻塞接口直接用HTTP客户端读取）
+     */
+    public URL presignGetUrl(String bucketName, String key) {
+        Date expiration = new Date(System.currentTimeMillis() + ossConfig.getNbPresignExpireSeconds() * 1000);
+        return ossClient.generatePresignedUrl(bucketName, key, expiration);
+    }
+
+    /**
+     * 指定桶当前是否可用（熔断期间返回false）
+     */
+    public boolean isBucketAvailable(String bucketName) {
+        return ossCallExecutor.isAvailable(bucketName);
+    }
+
+    /**
+     * 非阻塞接口访问预签名地址前取得桶熔断器的放行名额，
+     * 返回true时必须随后调用recordBucketOutcome
+     */
+    public boolean tryAcquireBucket(String bucketName) {
+        return ossCallExecutor.tryAcquire(bucketName);
+    }
+
+    /**
+     * 记录非阻塞接口直接访问预签名地址的结果（与阻塞调用共用熔断器）
+     */
+    public void recordBucketOutcome(String bucketName, boolean success) {
+        ossCallExecutor.recordOutcome(bucketName, success);
+    }
+
+    public String toThumbnailDataUri(byte[] thumbnailBytes) {
+        return "data:image/" + ossConfig.getThumbnailFormat() + ";base64,"
+                + Base64.getEncoder().encodeToString(thumbnailBytes);
+    }
+
+    /**
+     * 批量获取一页附件的缩略图和文本预览
+     * 所有文件在服务端并发拉取，哪一项先完成就先交给consumer输出；
+     * consumer抛出IOException（通常是客户端已断开）时取消剩余任务
+     */
+    public void batchLoadPreviews(List<String> imageFiles, List<String> textFiles,
+                                  ThumbnailWorkerPool.Priority priority,
+                                  PreviewItemConsumer consumer) throws IOException {
+        CompletionService<Map<String, Object>> completionService = new ExecutorCompletionService<>(batchExecutor);
+        List<Future<Map<String, Object>>> futures = new ArrayList<>();
+
+        for (String fileName : new LinkedHashSet<>(imageFiles)) {
+            futures.add(completionService.submit(() ->
+                buildPreviewItem("thumbnail", fileName, getImageThumbnailBase64(fileName, priority))));
+        }
+        for (String fileName : new LinkedHashSet<>(textFiles)) {
+            futures.add(completionService.submit(() ->
+                buildPreviewItem("preview", fileName, getTextPreview(fileName))));
+        }
+
+        long startTime = System.currentTimeMillis();
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                Map<String, Object> item;
+                try {
+                    item = completionService.take().get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("批量预览被中断", e);
+                } catch (Exception e) {
+                    logger.error("批量预览任务失败: {}", e.getMessage());
+                    continue;
+                }
+                consumer.accept(item);
+            }
+        } finally {
+            // 客户端断开或中断时，未完成的任务不再需要
+            for (Future<Map<String, Object>> future : futures) {
+                future.cancel(true);
+            }
+        }
+        logger.debug("批量预览完成: {} 个文件, 耗时: {}ms", futures.size(), System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * 把一组附件打包为ZIP直接写出到输出流
+     * 最多zipPrefetch个对象同时处于打开状态（已拿到响应头、等待写出），哪个先打开就先写入，
+     * 每个条目边读边写，服务端不缓存文件内容；打不开的文件记录在ZIP末尾的清单中
+     *
+     * @return 成功写入的文件数
+     */
+    public int writeAttachmentsZip(List<String> imageFiles, List<String> textFiles,
+                                   OutputStream outputStream) throws IOException {
+        List<String[]> pending = new ArrayList<>();
+        for (String fileName : new LinkedHashSet<>(imageFiles)) {
+            pending.add(new String[]{ossConfig.getImageBucketName(), fileName, "图片/" + fileName});
+        }
+        for (String fileName : new LinkedHashSet<>(textFiles)) {
+            pending.add(new String[]{ossConfig.getTextBucketName(), fileName, "文本文件/" + fileName});
+        }
+
+        long startTime = System.currentTimeMillis();
+        CompletionService<ZipSource> completionService = new ExecutorCompletionService<>(zipExecutor);
+        Map<Future<ZipSource>, String[]> inFlight = new HashMap<>();
+        Iterator<String[]> iterator = pending.iterator();
+        List<String> failures = new ArrayList<>();
+        int written = 0;
+        // 已打开但还没有被写出循环取走的附件，结束时（包括客户端断开）统一断开
+        Set<ZipSource> unclaimed = ConcurrentHashMap.newKeySet();
+        AtomicBoolean closed = new AtomicBoolean();
+
+        ZipOutputStream zip = new ZipOutputStream(outputStream, StandardCharsets.UTF_8);
+        try {
+            while (inFlight.size() < ossConfig.getZipPrefetch() && iterator.hasNext()) {
+                submitZipSource(completionService, inFlight, iterator.next(), unclaimed, closed);
+            }
+            while (!inFlight.isEmpty()) {
+                Future<ZipSource> future = completionService.take();
+                String[] item = inFlight.remove(future);
+                if (iterator.hasNext()) {
+                    submitZipSource(completionService, inFlight, iterator.next(), unclaimed, closed);
+                }
+
+                ZipSource source;
+                try {
+                    source = future.get();
+                } catch (ExecutionException e) {
+                    logger.warn("打包附件失败: {}/{}, 错误: {}", item[0], item[1], e.getCause().getMessage());
+                    failures.add(item[2]);
+                    continue;
+                }
+                unclaimed.remove(source);
+
+                try (InputStream inputStream = source.inputStream) {
+                    // 图片本身已压缩，直接存储；文本文件压缩
+                    zip.setLevel(item[2].startsWith("图片/") ? Deflater.NO_COMPRESSION : Deflater.BEST_SPEED);
+                    zip.putNextEntry(new ZipEntry(item[2]));
+                    IOUtils.copyLarge(inputStream, zip, new byte[STREAM_BUFFER_SIZE]);
+                    zip.closeEntry();
+                    written++;
+                } catch (IOException e) {
+                    source.abort();
+                    throw e;
+                }
+            }
+
+            if (!failures.isEmpty()) {
+                zip.setLevel(Deflater.BEST_SPEED);
+                zip.putNextEntry(new ZipEntry("缺失文件.txt"));
+                zip.write(String.join("\n", failures).getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.finish();
+            zip.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("附件打包被中断", e);
+        } finally {
+            // 客户端断开时不再等待仍在打开的对象：先取消任务，再断开已经打开的对象；
+            // 取消后才打开完成的任务看到closed后自行断开
+            closed.set(true);
+            for (Future<ZipSource> future : inFlight.keySet()) {
+                future.cancel(true);
+            }
+            for (ZipSource source : unclaimed) {
+                if (unclaimed.remove(source)) {
+                    abortQuietly(source);
+                }
+            }
+        }
+
+        logger.info("附件ZIP打包完成: {} 个文件, 失败 {} 个, 耗时: {}ms",
+                written, failures.size(), System.currentTimeMillis() - startTime);
+        return written;
+    }
+
+    private void submitZipSource(CompletionService<ZipSource> completionService,
+                                 Map<Future<ZipSource>, String[]> inFlight, String[] item,
+                                 Set<ZipSource> unclaimed, AtomicBoolean closed) {
+        String bucketName = item[0];
+        String fileName = item[1];
+        Future<ZipSource> future = completionService.submit(() -> {
+            ZipSource source;
+            OssLocalMirror.Handle mirrorHandle = openMirror(bucketName, fileName, null);
+            if (mirrorHandle != null) {
+                source = new ZipSource(Channels.newInputStream(mirrorHandle.getChannel()), null);
+            } else {
+                OSSObject ossObject = ossCallExecutor.execute(bucketName, () -> ossClient.getObject(bucketName, fileName));
+                source = new ZipSource(ossObject.getObjectContent(), ossObject);
+            }
+            // 先登记再检查：打包已结束时要么由这里、要么由finally断开，不会遗漏
+            unclaimed.add(source);
+            if (closed.get() && unclaimed.remove(source)) {
+                abortQuietly(source);
+                throw new CancellationException("附件打包已结束: " + fileName);
+            }
+            return source;
+        });
+        inFlight.put(future, item);
+    }
+
+    private void abortQuietly(ZipSource source) {
+        try {
+            source.abort();
+        } catch (IOException e) {
+            logger.debug("释放未写出的附件失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 已打开、等待写入ZIP的附件
+     */
+    private static class ZipSource {
+        final InputStream inputStream;
+        final OSSObject ossObject;
+
+        ZipSource(InputStream inputStream, OSSObject ossObject) {
+            this.inputStream = inputStream;
+            this.ossObject = ossObject;
+        }
+
+        void abort() throws IOException {
+            if (ossObject != null) {
+                ossObject.forcedClose();
+            } else {
+                inputStream.close();
+            }
+        }
+    }
+
+    /**
+     * 构建批量预览的单项结果
+     */
+    public Map<String, Object> buildPreviewItem(String type, String fileName, String data) {
+        Map<String, Object> item = new HashMap<>();
+        item.put("type", type);
+        item.put("fileName", fileName);
+        item.put("success", data != null);
+        item.put("data", data);
+        return item;
+    }
+
     /**
      * 获取图片完整内容的Base64编码
      */
     public String getImageFullBase64(String fileName) {
         try {
-            OSSObject ossObject = ossClient.getObject(ossConfig.getImageBucketName(), fileName);
-            InputStream inputStream = ossObject.getObjectContent();
+            InputStream inputStream = openObject(null, ossConfig.getImageBucketName(), fileName);
             
             byte[] imageBytes = IOUtils.toByteArray(inputStream);
             String base64 = Base64.getEncoder().encodeToString(imageBytes);
@@ -160,9 +841,27 @@ public class OssService {
             logger.debug("从缓存获取文本预览: {}", fileName);
             return cached;
         }
+        if (nonTextPreviewCache.contains(fileName)) {
+            return null;
+        }
+
+        // 二进制文档不做文本预览
+        if (isBinaryDocument(fileName)) {
+            nonTextPreviewCache.add(fileName);
+            return null;
+        }
+
+        // OSS熔断期间镜像中有该文件时照常从镜像读取，否则返回占位内容
+        boolean mirrored = mirrorEntry(ossConfig.getTextBucketName(), fileName) != null;
+        if (!mirrored && !ossCallExecutor.isAvailable(ossConfig.getTextBucketName())) {
+            return TEXT_PREVIEW_UNAVAILABLE;
+        }
+        if (negativeCache.isBlocked(textPreviewFailureKey(fileName))) {
+            return null;
+        }
 
         // 检查文件是否存在（使用缓存）
-        if (!doesTextExist(fileName)) {
+        if (!mirrored && !doesTextExist(fileName)) {
             logger.debug("文本文件不存在: {}", fileName);
             return null;
         }
@@ -171,34 +870,146 @@ public class OssService {
             logger.debug("开始获取文本预览: {}", fileName);
             long startTime = System.currentTimeMillis();
 
-            OSSObject ossObject = ossClient.getObject(ossConfig.getTextBucketName(), fileName);
-            InputStream inputStream = ossObject.getObjectContent();
+            int rangeLength = getTextPreviewRangeLength();
+            GetObjectRequest request = new GetObjectRequest(ossConfig.getTextBucketName(), fileName);
+            request.setRange(0, rangeLength - 1);
 
-            String content = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
-            inputStream.close();
+            byte[] head = readSmallObject("text-preview", request, rangeLength);
+            String result = completeTextPreview(fileName, head);
 
-            // 截取预览长度
-            String result;
-            if (content.length() > ossConfig.getTextPreviewLength()) {
-                result = content.substring(0, ossConfig.getTextPreviewLength()) + "...";
-            } else {
-                result = content;
-            }
+            long endTime = System.currentTimeMillis();
+            logger.debug("文本预览获取完成: {}, 读取 {} 字节, 耗时: {}ms", fileName, head.length, endTime - startTime);
+
+            return result;
+
+        } catch (Exception e) {
+            logger.error("获取文本预览失败: {}, 错误: {}", fileName, e.getMessage());
+            // 记录失败结果，退避期内不再重复尝试
+            negativeCache.recordError(textPreviewFailureKey(fileName), e);
+            return null;
+        }
+    }
+
+    /**
+     * 文本预览需要读取的字节数：UTF-8每个字符最多4字节，多取一个字符判断是否截断，再留出BOM的余量
+     */
+    public int getTextPreviewRangeLength() {
+        return (ossConfig.getTextPreviewLength() + 1) * 4 + 3;
+    }
+
+    /**
+     * 由文件开头的字节生成文本预览并缓存；内容不是文本时返回null
+     */
+    public String completeTextPreview(String fileName, byte[] head) {
+        String content = decodeTextPreview(head, head.length);
+        if (content == null) {
+            logger.debug("文件内容不是文本，跳过预览: {}", fileName);
+            nonTextPreviewCache.add(fileName);
+            return null;
+        }
+
+        // 截取预览长度
+        int previewLength = ossConfig.getTextPreviewLength();
+        String result = content.length() > previewLength ? content.substring(0, previewLength) + "..." : content;
+        textPreviewCache.put(fileName, result);
+        negativeCache.remove(textPreviewFailureKey(fileName));
+        return result;
+    }
+
+    /**
+     * 已缓存的文本预览（不访问OSS）
+     */
+    public String getCachedTextPreview(String fileName) {
+        return textPreviewCache.get(fileName);
+    }
+
+    /**
+     * 不需要读取OSS就能确定没有预览的文件：二进制文档、已知非文本、近期读取失败
+     */
+    public boolean isTextPreviewSkipped(String fileName) {
+        return isBinaryDocument(fileName) || nonTextPreviewCache.contains(fileName)
+                || negativeCache.isBlocked(textPreviewFailureKey(fileName));
+    }
+
+    public void recordTextPreviewFailure(String fileName, Throwable error) {
+        negativeCache.recordError(textPreviewFailureKey(fileName), error);
+    }
+
+    /**
+     * 根据扩展名判断是否为二进制文档
+     */
+    private boolean isBinaryDocument(String fileName) {
+        String lowerCase = fileName.toLowerCase();
+        return lowerCase.endsWith(".pdf") || lowerCase.endsWith(".doc") || lowerCase.endsWith(".docx");
+    }
+
+    /**
+     * 解码文件开头的字节作为预览文本
+     * 末尾被截断的多字节字符直接丢弃；UTF-8解码失败时按GB18030重试；
+     * 内容看起来是二进制（含NUL、控制字符过多或常见文档文件头）时返回null
+     */
+    private String decodeTextPreview(byte[] bytes, int length) {
+        if (length <= 0) {
+            return "";
+        }
+        if (startsWith(bytes, length, new byte[] {'%', 'P', 'D', 'F'})
+                || startsWith(bytes, length, new byte[] {'P', 'K', 3, 4})
+                || startsWith(bytes, length, new byte[] {(byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0})) {
+            return null;
+        }
 
-            // 缓存结果
-            textPreviewCache.put(fileName, result);
+        int offset = 0;
+        if (startsWith(bytes, length, new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF})) {
+            offset = 3;
+        }
 
-            long endTime = System.currentTimeMillis();
-            logger.debug("文本预览获取完成: {}, 耗时: {}ms", fileName, endTime - startTime);
+        String text = decodePrefix(StandardCharsets.UTF_8, bytes, offset, length - offset);
+        if (text == null) {
+            text = decodePrefix(Charset.forName("GB18030"), bytes, offset, length - offset);
+        }
+        if (text == null) {
+            return null;
+        }
 
-            return result;
+        int controlChars = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == 0) {
+                return null;
+            }
+            if (c < 0x20 && c != '\t' && c != '\n' && c != '\r' && c != '\f') {
+                controlChars++;
+            }
+        }
+        return controlChars * 10 > text.length() ? null : text;
+    }
 
-        } catch (Exception e) {
-            logger.error("获取文本预览失败: {}, 错误: {}", fileName, e.getMessage());
-            // 缓存失败结果，避免重复尝试
-            textPreviewCache.put(fileName, null);
+    /**
+     * 严格解码字节前缀：结尾不完整的字符忽略，中间出现非法字节返回null
+     */
+    private String decodePrefix(Charset charset, byte[] bytes, int offset, int length) {
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        CharBuffer output = CharBuffer.allocate(length);
+        CoderResult result = decoder.decode(ByteBuffer.wrap(bytes, offset, length), output, false);
+        if (result.isError()) {
             return null;
         }
+        output.flip();
+        return output.toString();
+    }
+
+    private boolean startsWith(byte[] bytes, int length, byte[] prefix) {
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
     }
     
     /**
@@ -206,8 +1017,7 @@ public class OssService {
      */
     public String getTextFullContent(String fileName) {
         try {
-            OSSObject ossObject = ossClient.getObject(ossConfig.getTextBucketName(), fileName);
-            InputStream inputStream = ossObject.getObjectContent();
+            InputStream inputStream = openObject(null, ossConfig.getTextBucketName(), fileName);
 
             String content = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
             inputStream.close();
@@ -221,49 +1031,113 @@ public class OssService {
     }
 
     /**
-     * 获取CSV文件内容并转换为HTML表格格式
+     * 分页获取CSV文件内容（流式解析，只返回 [offset, offset+limit) 范围内的数据行）
+     * 翻页时借助稀疏行偏移索引从最近的检查点发起区间GET
      */
-    public Map<String, Object> getCsvContent(String fileName) {
+    public Map<String, Object> getCsvContent(String fileName, long offset, int limit) {
         Map<String, Object> result = new HashMap<>();
-        try {
-            OSSObject ossObject = ossClient.getObject(ossConfig.getTextBucketName(), fileName);
-            InputStream inputStream = ossObject.getObjectContent();
+        String bucketName = ossConfig.getTextBucketName();
+        int pageSize = Math.max(1, Math.min(limit, ossConfig.getCsvMaxPageRows()));
+        long firstRow = Math.max(0, offset);
 
-            String content = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
-            inputStream.close();
-
-            // 解析CSV内容
-            String[] lines = content.split("\n");
-            if (lines.length == 0) {
+        try {
+            ObjectMetadata metadata = getObjectMetadata(bucketName, fileName);
+            if (metadata == null) {
                 result.put("success", false);
-                result.put("message", "CSV文件为空");
+                result.put("message", "CSV文件不存在");
                 return result;
             }
 
-            List<List<String>> csvData = new ArrayList<>();
-            List<String> headers = null;
-
-            for (int i = 0; i < lines.length; i++) {
-                String line = lines[i].trim();
-                if (line.isEmpty()) continue;
-
-                // 简单的CSV解析（处理逗号分隔）
-                List<String> row = parseCsvLine(line);
+            CsvRowIndex index = csvRowIndexCache.get(fileName);
+            if (index != null && !index.getEtag().equals(metadata.getETag())) {
+                index = null;
+            }
+            long[] checkpoint = index != null ? index.checkpointFor(firstRow) : null;
 
-                if (i == 0) {
-                    headers = row; // 第一行作为表头
+            long startOffset = checkpoint != null ? checkpoint[1] : 0;
+            long row = checkpoint != null ? checkpoint[0] : 0;
+            List<List<String>> csvData = new ArrayList<>();
+            boolean hasMore = false;
+
+            // 只使用与HEAD同一版本的镜像文件，检查点偏移才有意义
+            try (OssLocalMirror.Handle mirrorHandle = openMirror(bucketName, fileName, metadata.getETag())) {
+                OSSObject ossObject = null;
+                InputStream inputStream;
+                if (mirrorHandle != null) {
+                    inputStream = Channels.newInputStream(mirrorHandle.getChannel().position(startOffset));
                 } else {
-                    csvData.add(row);
+                    GetObjectRequest request = new GetObjectRequest(bucketName, fileName);
+                    if (startOffset > 0) {
+                        request.setRange(startOffset, -1);
+                    }
+                    // 固定为HEAD看到的版本：对象在两次请求之间被覆盖时检查点偏移失效
+                    request.setMatchingETagConstraints(List.of(metadata.getETag()));
+                    try {
+                        ossObject = ossCallExecutor.execute(bucketName, () -> ossClient.getObject(request));
+                    } catch (OSSException e) {
+                        if ("PreconditionFailed".equals(e.getErrorCode())) {
+                            csvRowIndexCache.remove(fileName);
+                            logger.info("CSV文件读取期间已被修改，丢弃行偏移索引: {}", fileName);
+                            result.put("success", false);
+                            result.put("message", "CSV文件已更新，请重新加载");
+                            return result;
+                        }
+                        throw e;
+                    }
+                    inputStream = ossObject.getObjectContent();
+                }
+                boolean reachedEnd = false;
+                CsvStreamReader reader = new CsvStreamReader(inputStream, startOffset);
+                try {
+                    if (index == null) {
+                        List<String> headers = reader.nextRecord();
+                        if (headers == null) {
+                            result.put("success", false);
+                            result.put("message", "CSV文件为空");
+                            return result;
+                        }
+                        index = new CsvRowIndex(metadata.getETag(), ossConfig.getCsvIndexInterval(), headers);
+                        csvRowIndexCache.put(fileName, index);
+                    }
+
+                    List<String> record;
+                    while ((record = reader.nextRecord()) != null) {
+                        index.record(row, reader.getRecordStart());
+                        if (row >= firstRow) {
+                            if (csvData.size() == pageSize) {
+                                hasMore = true;
+                                break;
+                            }
+                            csvData.add(record);
+                        }
+                        row++;
+                    }
+                    if (record == null) {
+                        reachedEnd = true;
+                        index.setTotalRows(row);
+                    }
+                } finally {
+                    if (reachedEnd || ossObject == null) {
+                        reader.close();
+                    } else {
+                        // 提前结束时直接中断连接，避免关闭流时把剩余内容读完
+                        ossObject.forcedClose();
+                    }
                 }
             }
 
             result.put("success", true);
-            result.put("headers", headers);
+            result.put("headers", index.getHeaders());
             result.put("data", csvData);
+            result.put("offset", firstRow);
             result.put("rowCount", csvData.size());
+            result.put("hasMore", hasMore);
+            long totalRows = index.getTotalRows();
+            result.put("totalRows", totalRows >= 0 ? totalRows : null);
             result.put("fileName", fileName);
 
-            logger.debug("CSV文件解析完成: {}, 行数: {}", fileName, csvData.size());
+            logger.debug("CSV分页解析完成: {}, 起始行: {}, 行数: {}, 检查点偏移: {}",
+                    fileName, firstRow, csvData.size(), startOffset);
             return result;
 
         } catch (Exception e) {
@@ -274,31 +1148,6 @@ public class OssService {
         }
     }
 
-    /**
-     * 解析CSV行（简单实现，处理基本的逗号分隔和引号包围）
-     */
-    private List<String> parseCsvLine(String line) {
-        List<String> result = new ArrayList<>();
-        StringBuilder current = new StringBuilder();
-        boolean inQuotes = false;
-
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
-
-            if (c == '"') {
-                inQuotes = !inQuotes;
-            } else if (c == ',' && !inQuotes) {
-                result.add(current.toString().trim());
-                current = new StringBuilder();
-            } else {
-                current.append(c);
-            }
-        }
-
-        result.add(current.toString().trim());
-        return result;
-    }
-    
     /**
      * 检查文件是否存在（带缓存）
      */
@@ -308,14 +1157,23 @@ public class OssService {
         if (cached != null) {
             return cached;
         }
+        if (negativeCache.isBlocked(cacheKey)) {
+            return false;
+        }
 
         try {
-            boolean exists = ossClient.doesObjectExist(bucketName, fileName);
-            // 缓存结果
-            fileExistenceCache.put(cacheKey, exists);
+            boolean exists = ossCallExecutor.execute(bucketName, () -> ossClient.doesObjectExist(bucketName, fileName));
+            // 存在的结果长期缓存，不存在的结果只在短TTL内有效（文件随时可能上传）
+            if (exists) {
+                fileExistenceCache.put(cacheKey, true);
+                negativeCache.remove(cacheKey);
+            } else {
+                negativeCache.recordMissing(cacheKey);
+            }
             return exists;
         } catch (Exception e) {
             logger.error("检查文件存在性失败: {}", e.getMessage());
+            negativeCache.recordError(cacheKey, e);
             return false;
         }
     }
@@ -362,8 +1220,7 @@ public class OssService {
     public List<String> listFiles(String bucketName) {
         List<String> fileNames = new ArrayList<>();
         try {
-            ObjectListing objectListing = ossClient.listObjects(bucketName);
-            for (OSSObjectSummary objectSummary : objectListing.getObjectSummaries()) {
+            for (OSSObjectSummary objectSummary : listObjectSummaries(bucketName)) {
                 fileNames.add(objectSummary.getKey());
             }
         } catch (Exception e) {
@@ -372,6 +1229,26 @@ public class OssService {
         return fileNames;
     }
 
+    /**
+     * 分页列出桶中全部对象的摘要（跳过缩略图衍生文件）
+     */
+    public List<OSSObjectSummary> listObjectSummaries(String bucketName) {
+        List<OSSObjectSummary> summaries = new ArrayList<>();
+        String marker = null;
+        ObjectListing objectListing;
+        do {
+            ListObjectsRequest request = new ListObjectsRequest(bucketName).withMarker(marker).withMaxKeys(1000);
+            objectListing = ossCallExecutor.execute(bucketName, () -> ossClient.listObjects(request));
+            for (OSSObjectSummary objectSummary : objectListing.getObjectSummaries()) {
+                if (!thumbnailStore.isDerivativeKey(bucketName, objectSummary.getKey())) {
+                    summaries.add(objectSummary);
+                }
+            }
+            marker = objectListing.getNextMarker();
+        } while (objectListing.isTruncated());
+        return summaries;
+    }
+
     /**
      * 获取桶中的文件列表（带缓存）
      */
@@ -392,16 +1269,10 @@ public class OssService {
         try {
             logger.debug("重新获取文件列表: {}", bucketName);
             Set<String> fileSet = new HashSet<>();
-            ObjectListing objectListing = ossClient.listObjects(bucketName);
-            for (OSSObjectSummary objectSummary : objectListing.getObjectSummaries()) {
+            for (OSSObjectSummary objectSummary : listObjectSummaries(bucketName)) {
                 fileSet.add(objectSummary.getKey());
             }
-
-            // 更新缓存
-            bucketFileListCache.put(cacheKey, fileSet);
-            bucketFileListCacheTime.put(cacheKey, System.currentTimeMillis());
-
-            logger.debug("文件列表缓存已更新: {}, 文件数: {}", bucketName, fileSet.size());
+            updateFileListCache(bucketName, fileSet);
             return fileSet;
         } catch (Exception e) {
             logger.error("获取文件列表失败: {}", e.getMessage());
@@ -409,6 +1280,120 @@ public class OssService {
         }
     }
     
+    /**
+     * 用最新的列举结果刷新文件列表缓存
+     */
+    public void updateFileListCache(String bucketName, Set<String> fileSet) {
+        // 与上传后的增量更新串行，列表和摘要保持一致
+        bucketFileListCache.compute(bucketName, (bucket, previous) -> {
+            if (!fileSet.equals(previous) || !bucketFileListDigest.containsKey(bucketName)) {
+                long digest = 0;
+                for (String key : fileSet) {
+                    digest += fileNameHash(key);
+                }
+                bucketFileListDigest.put(bucketName, digest);
+            }
+            return fileSet;
+        });
+        bucketFileListCacheTime.put(bucketName, System.currentTimeMillis());
+        logger.debug("文件列表缓存已更新: {}, 文件数: {}", bucketName, fileSet.size());
+    }
+
+    /**
+     * 把桶文件索引和热点缩略图列表写入预热快照
+     */
+    public void exportWarmStart(WarmStartSnapshot snapshot, int maxThumbnails) {
+        for (String bucketName : List.of(ossConfig.getImageBucketName(), ossConfig.getTextBucketName())) {
+            Set<String> files = bucketFileListCache.get(bucketName);
+            if (files != null) {
+                snapshot.getBucketFiles().put(bucketName, files);
+            }
+        }
+        // 最近使用过的排在前面
+        snapshot.setHotThumbnails(thumbnailLastUsed.entrySet().stream()
+                .filter(entry -> thumbnailCache.containsKey(entry.getKey()))
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(maxThumbnails)
+                .map(Map.Entry::getKey)
+                .toList());
+    }
+
+    /**
+     * 从预热快照恢复桶文件索引（缓存时间按恢复时刻计算，之后由后台列举刷新）
+     */
+    public void restoreWarmStart(WarmStartSnapshot snapshot) {
+        snapshot.getBucketFiles().forEach((bucketName, files) -> updateFileListCache(bucketName, new HashSet<>(files)));
+    }
+
+    /**
+     * 用桶列举结果刷新文件索引；图片桶同时记录各图片的修改时间，原图有变化时作废内存中的缩略图
+     */
+    public void refreshBucketIndex(String bucketName, List<OSSObjectSummary> summaries) {
+        Set<String> keys = new HashSet<>();
+        boolean imageBucket = bucketName.equals(ossConfig.getImageBucketName());
+        for (OSSObjectSummary summary : summaries) {
+            keys.add(summary.getKey());
+            if (imageBucket && summary.getLastModified() != null) {
+                long lastModified = summary.getLastModified().getTime();
+                Long previous = imageLastModifiedIndex.put(summary.getKey(), lastModified);
+                if (previous != null && previous != lastModified) {
+                    removeCachedThumbnail(summary.getKey());
+                }
+            }
+        }
+        updateFileListCache(bucketName, keys);
+    }
+
+    /**
+     * 从衍生存储读回热点缩略图到内存缓存（只读已生成的文件，不会触发生成）
+     * 需在图片桶列举之后调用：只接受晚于原图修改时间的衍生文件，修改时间未知的跳过
+     */
+    public int preloadThumbnails(List<String> fileNames) {
+        if (thumbnailStore == null) {
+            return 0;
+        }
+        String variant = thumbnailVariant(ossConfig.getThumbnailWidth());
+        int loaded = 0;
+        for (String fileName : fileNames) {
+            Long lastModified = imageLastModifiedIndex.get(fileName);
+            if (lastModified == null || thumbnailCache.containsKey(fileName)) {
+                continue;
+            }
+            byte[] stored = thumbnailStore.read(fileName, variant, lastModified);
+            if (stored != null && thumbnailCache.putIfAbsent(fileName, stored) == null) {
+                touchThumbnail(fileName);
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * 图片、文本桶文件列表的内容指纹（附件列的匹配结果只取决于哪些文件存在）
+     * 列表缓存过期时先重新列举，保证指纹与随后分页查询使用的列表一致
+     */
+    public String getFileListFingerprint() {
+        StringBuilder fingerprint = new StringBuilder();
+        for (String bucketName : List.of(ossConfig.getImageBucketName(), ossConfig.getTextBucketName())) {
+            getCachedFileList(bucketName);
+            Long digest = bucketFileListDigest.get(bucketName);
+            fingerprint.append(digest != null ? Long.toHexString(digest) : "none").append(';');
+        }
+        return fingerprint.toString();
+    }
+
+    /**
+     * 文件名的64位哈希（FNV-1a），不依赖进程内的随机种子
+     */
+    private static long fileNameHash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
     /**
      * 列出图片桶中的所有文件
      */
@@ -423,44 +1408,489 @@ public class OssService {
         return listFiles(ossConfig.getTextBucketName());
     }
 
+    private static String thumbnailFailureKey(String fileName) {
+        return "thumbnail:" + fileName;
+    }
+
+    private static String textPreviewFailureKey(String fileName) {
+        return "text-preview:" + fileName;
+    }
+
+    /**
+     * 发起GET请求（启用对冲时按响应头到达时间对冲），落败的连接直接断开
+     */
+    private OSSObject getObjectHedged(String operation, GetObjectRequest request) throws Exception {
+        Callable<OSSObject> call = () -> ossCallExecutor.executeAcquired(
+                request.getBucketName(), () -> ossClient.getObject(request));
+        return ossCallExecutor.executeHedged(request.getBucketName(), hedgedRequestExecutor, operation,
+                call, this::abortQuietly);
+    }
+
     /**
-     * 下载图片文件
+     * 读取小对象（或小区间）的全部字节，启用对冲时整个读取过程参与对冲
      */
-    public byte[] downloadImageFile(String fileName) {
+    private byte[] readSmallObject(String operation, GetObjectRequest request, int maxLength) throws Exception {
+        OssLocalMirror.Handle mirrorHandle = openMirror(request.getBucketName(), request.getKey(), null);
+        if (mirrorHandle != null) {
+            long start = request.getRange() != null ? Math.max(0, request.getRange()[0]) : 0;
+            try (mirrorHandle) {
+                FileChannel channel = mirrorHandle.getChannel();
+                long size = mirrorHandle.getEntry().getSize();
+                ByteBuffer buffer = ByteBuffer.allocate((int) Math.max(0, Math.min(maxLength, size - start)));
+                while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) > 0) {
+                    // 读满为止
+                }
+                return Arrays.copyOf(buffer.array(), buffer.position());
+            }
+        }
+
+        Callable<byte[]> call = () -> {
+            OSSObject ossObject = ossCallExecutor.executeAcquired(
+                    request.getBucketName(), () -> ossClient.getObject(request));
+            try (InputStream inputStream = ossObject.getObjectContent()) {
+                byte[] buffer = new byte[maxLength];
+                int bytesRead = IOUtils.read(inputStream, buffer);
+                return bytesRead == maxLength ? buffer : Arrays.copyOf(buffer, bytesRead);
+            }
+        };
+        return ossCallExecutor.executeHedged(request.getBucketName(), hedgedRequestExecutor, operation,
+                call, null);
+    }
+
+    private void abortQuietly(OSSObject ossObject) {
         try {
-            OSSObject ossObject = ossClient.getObject(ossConfig.getImageBucketName(), fileName);
-            InputStream inputStream = ossObject.getObjectContent();
+            ossObject.forcedClose();
+        } catch (IOException e) {
+            logger.debug("断开对冲落败的连接失败: {}", e.getMessage());
+        }
+    }
 
-            byte[] fileData = IOUtils.toByteArray(inputStream);
-            inputStream.close();
+    /**
+     * 获取对象元数据（HEAD请求，不下载内容）；对象不存在时返回null
+     */
+    public ObjectMetadata getObjectMetadata(String bucketName, String fileName) {
+        OssLocalMirror.Entry mirrorEntry = mirrorEntry(bucketName, fileName);
+        if (mirrorEntry != null) {
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setContentLength(mirrorEntry.getSize());
+            metadata.setLastModified(new Date(mirrorEntry.getLastModified()));
+            metadata.setHeader(OSSHeaders.ETAG, mirrorEntry.getEtag());
+            return metadata;
+        }
+        try {
+            return ossCallExecutor.execute(bucketName, () -> ossClient.getObjectMetadata(bucketName, fileName));
+        } catch (OSSException e) {
+            if ("NoSuchKey".equals(e.getErrorCode())) {
+                return null;
+            }
+            throw e;
+        }
+    }
 
-            logger.info("图片文件下载成功: {}", fileName);
-            return fileData;
+    /**
+     * 将对象的指定字节区间直接写出到输出流，不在内存中缓存整个文件：
+     * 镜像中有同一版本时用FileChannel.transferTo从本地文件写出，否则回源OSS
+     *
+     * @param etag  响应头中已声明的ETag：只使用该版本的镜像文件，回源时作为If-Match条件；为null时不校验
+     * @param start 起始字节（含）
+     * @param end   结束字节（含），小于0表示读到末尾
+     * @return 写出的字节数
+     */
+    public long streamObject(String bucketName, String fileName, String etag, long start, long end,
+                             OutputStream outputStream) throws IOException {
+        OssLocalMirror.Handle mirrorHandle = openMirror(bucketName, fileName, etag);
+        if (mirrorHandle == null) {
+            return streamFromOss(bucketName, fileName, etag, start, end, outputStream);
+        }
 
-        } catch (Exception e) {
-            logger.error("下载图片文件失败: {}, 错误: {}", fileName, e.getMessage());
-            return null;
+        long size = mirrorHandle.getEntry().getSize();
+        long last = end >= 0 ? Math.min(end, size - 1) : size - 1;
+        long position = start;
+        try (mirrorHandle) {
+            FileChannel channel = mirrorHandle.getChannel();
+            WritableByteChannel target = Channels.newChannel(outputStream);
+            while (position <= last) {
+                long transferred = channel.transferTo(position, last - position + 1, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+        }
+        outputStream.flush();
+        logger.debug("从本地镜像输出文件: {}/{}, 区间: {}-{}", bucketName, fileName, start, last);
+        return position - start;
+    }
+
+    /**
+     * 以固定大小的缓冲区把OSS对象区间写出到输出流；区间超过并行阈值时改为多分段并发拉取、按顺序重组
+     * （etag不为null时所有请求都限定为该版本）
+     */
+    private long streamFromOss(String bucketName, String fileName, String etag, long start, long end,
+                               OutputStream outputStream) throws IOException {
+        long startTime = System.currentTimeMillis();
+        long copied;
+        boolean parallel = isParallelRange(start, end);
+        if (parallel) {
+            copied = parallelRangeReader.read(bucketName, fileName, etag, start, end, outputStream);
+        } else {
+            GetObjectRequest request = new GetObjectRequest(bucketName, fileName);
+            if (start > 0 || end >= 0) {
+                request.setRange(start, end);
+            }
+            if (etag != null) {
+                request.setMatchingETagConstraints(List.of(etag));
+            }
+
+            OSSObject ossObject;
+            try {
+                ossObject = ossCallExecutor.execute(bucketName, () -> ossClient.getObject(request));
+            } catch (OSSException e) {
+                if ("PreconditionFailed".equals(e.getErrorCode())) {
+                    throw new ParallelRangeReader.ObjectChangedException(fileName, e);
+                }
+                throw e;
+            }
+            try (InputStream inputStream = ossObject.getObjectContent()) {
+                copied = IOUtils.copyLarge(inputStream, outputStream, new byte[STREAM_BUFFER_SIZE]);
+            }
+            outputStream.flush();
+        }
+
+        logger.info("文件流式下载完成: {}/{}, 区间: {}-{}, {} 字节, 并行: {}, 耗时: {}ms",
+                bucketName, fileName, start, end, copied, parallel, System.currentTimeMillis() - startTime);
+        return copied;
+    }
+
+    /**
+     * 将整个对象下载到本地落盘文件（大对象并行分段写入）
+     *
+     * @return 写入的字节数；对象不存在时返回-1
+     */
+    public long downloadToFile(String bucketName, String fileName, Path target) throws IOException {
+        ObjectMetadata metadata = getObjectMetadata(bucketName, fileName);
+        if (metadata == null) {
+            return -1;
+        }
+        return downloadToFile(bucketName, fileName, metadata.getETag(), metadata.getContentLength(), target);
+    }
+
+    private long downloadToFile(String bucketName, String fileName, String etag, long size,
+                                Path target) throws IOException {
+        if (size > 0 && isParallelRange(0, size - 1)) {
+            return parallelRangeReader.readToFile(bucketName, fileName, etag, 0, size - 1, target);
+        }
+        try (OutputStream outputStream = Files.newOutputStream(target)) {
+            return streamFromOss(bucketName, fileName, etag, 0, -1, outputStream);
+        }
+    }
+
+    /**
+     * 查找本地镜像，未启用镜像或未命中时返回null（未命中的对象在后台拉取）
+     */
+    private OssLocalMirror.Entry mirrorEntry(String bucketName, String fileName) {
+        return localMirror != null ? localMirror.lookup(bucketName, fileName) : null;
+    }
+
+    /**
+     * 打开本地镜像文件（etag不为null时只接受该版本），未启用镜像或未命中时返回null。
+     * 读取内容须通过打开的文件，不能再按路径重新打开：期间文件可能被同步删除或替换
+     */
+    private OssLocalMirror.Handle openMirror(String bucketName, String fileName, String etag) {
+        return localMirror != null ? localMirror.open(bucketName, fileName, etag) : null;
+    }
+
+    /**
+     * 镜像后台拉取：直接从OSS下载，过大的对象不做镜像
+     */
+    private ObjectMetadata fillMirror(String bucketName, String fileName, Path target) throws IOException {
+        // 下载过程中对象被覆盖时按新版本重来一次
+        for (int attempt = 0; ; attempt++) {
+            ObjectMetadata metadata;
+            try {
+                metadata = ossCallExecutor.execute(bucketName, () -> ossClient.getObjectMetadata(bucketName, fileName));
+            } catch (OSSException e) {
+                if ("NoSuchKey".equals(e.getErrorCode())) {
+                    return null;
+                }
+                throw e;
+            }
+            if (metadata.getContentLength() > ossConfig.getMirrorMaxObjectBytes()) {
+                return null;
+            }
+            try {
+                downloadToFile(bucketName, fileName, metadata.getETag(), metadata.getContentLength(), target);
+                return metadata;
+            } catch (ParallelRangeReader.ObjectChangedException e) {
+                if (attempt > 0) {
+                    throw e;
+                }
+                logger.debug("镜像拉取期间对象已更新，重新拉取: {}/{}", bucketName, fileName);
+            }
+        }
+    }
+
+    /**
+     * 打开一个写入OSS分片上传的输出流（写完后close合并，出错时调用abort取消）
+     */
+    public OssMultipartOutputStream openMultipartUpload(String bucketName, String key, String contentType) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType(contentType);
+        return new OssMultipartOutputStream(ossClient, ossCallExecutor, uploadExecutor, bucketName, key, metadata,
+            ossConfig.getUploadPartSizeBytes(), ossConfig.getUploadMaxInFlightParts());
+    }
+
+    /**
+     * 生成对象的限时分享链接
+     */
+    public URL generateShareUrl(String bucketName, String key) {
+        Date expiration = new Date(System.currentTimeMillis() + ossConfig.getShareUrlExpireSeconds() * 1000);
+        return ossClient.generatePresignedUrl(bucketName, key, expiration);
+    }
+
+    /**
+     * 上传附件到指定桶
+     * 小文件的上传流只读取一遍：数据一边写入并行分片上传，一边（图片桶）采样解码生成缩略图；
+     * 大文件用transferTo把容器已落盘的multipart临时文件移动为本地暂存文件（同一文件系统时只是重命名），
+     * 从暂存文件生成缩略图，再用带断点记录的分片上传，
+     * 失败后暂存文件和断点记录保留，可通过resumeUpload从已完成的分片继续。
+     * 上传完成后立即更新文件列表、存在性和失败缓存，不必等待列表缓存过期
+     *
+     * @return 上传结果（大小、ETag、是否已生成缩略图）
+     * @throws IllegalArgumentException 文件名不合法
+     * @throws IllegalStateException    同一文件正在上传
+     */
+    public Map<String, Object> uploadObject(String bucketName, String fileName, MultipartFile file)
+            throws IOException {
+        validateUploadKey(bucketName, fileName);
+        String uploadKey = bucketName + ":" + fileName;
+        if (!uploadsInProgress.add(uploadKey)) {
+            throw new IllegalStateException("文件正在上传: " + fileName);
+        }
+
+        try {
+            long startTime = System.currentTimeMillis();
+            boolean image = bucketName.equals(ossConfig.getImageBucketName());
+            String contentType = file.getContentType();
+            Map<Integer, byte[]> thumbnails = null;
+
+            if (file.getSize() >= ossConfig.getUploadResumableThresholdBytes()) {
+                Path spoolFile = resumableSpoolFile(bucketName, fileName).toAbsolutePath();
+                Files.createDirectories(spoolFile.getParent());
+                try {
+                    file.transferTo(spoolFile.toFile());
+                } catch (IOException | RuntimeException e) {
+                    // 上传流本身不完整，没有可继续的内容
+                    deleteQuietly(spoolFile);
+                    throw e;
+                }
+                if (image) {
+                    try (InputStream spooled = Files.newInputStream(spoolFile)) {
+                        thumbnails = renderThumbnails(spooled);
+                    } catch (IOException | RuntimeException e) {
+                        logger.warn("上传时生成缩略图失败: {}, 错误: {}", fileName, e.getMessage());
+                    }
+                }
+                try {
+                    uploadResumable(bucketName, fileName, spoolFile, contentType);
+                } catch (RuntimeException e) {
+                    logger.warn("大文件上传中断，已保留断点: {}/{}, 错误: {}", bucketName, fileName, e.getMessage());
+                    throw e;
+                }
+            } else {
+                OssMultipartOutputStream out = openMultipartUpload(bucketName, fileName, contentType);
+                try (InputStream input = file.getInputStream()) {
+                    thumbnails = teeUpload(fileName, input, out, image);
+                    out.close();
+                } catch (IOException | RuntimeException e) {
+                    out.abort();
+                    throw e;
+                }
+            }
+
+            Map<String, Object> result = onObjectUploaded(bucketName, fileName, thumbnails);
+            logger.info("文件上传完成: {}/{}, {} 字节, 缩略图: {}, 耗时: {}ms", bucketName, fileName,
+                    result.get("size"), thumbnails != null, System.currentTimeMillis() - startTime);
+            return result;
+        } finally {
+            uploadsInProgress.remove(uploadKey);
         }
     }
 
     /**
-     * 下载文本文件
+     * 从保留的暂存文件和断点记录继续上一次失败的大文件上传
+     *
+     * @throws IllegalArgumentException 没有可继续的上传
      */
-    public byte[] downloadTextFile(String fileName) {
+    public Map<String, Object> resumeUpload(String bucketName, String fileName) throws IOException {
+        validateUploadKey(bucketName, fileName);
+        Path spoolFile = resumableSpoolFile(bucketName, fileName);
+        if (!Files.exists(spoolFile)) {
+            throw new IllegalArgumentException("没有可继续的上传: " + fileName);
+        }
+        String uploadKey = bucketName + ":" + fileName;
+        if (!uploadsInProgress.add(uploadKey)) {
+            throw new IllegalStateException("文件正在上传: " + fileName);
+        }
+
         try {
-            OSSObject ossObject = ossClient.getObject(ossConfig.getTextBucketName(), fileName);
-            InputStream inputStream = ossObject.getObjectContent();
+            uploadResumable(bucketName, fileName, spoolFile, null);
+            // 原上传流已不可用，缩略图按需重新生成
+            return onObjectUploaded(bucketName, fileName, null);
+        } finally {
+            uploadsInProgress.remove(uploadKey);
+        }
+    }
 
-            byte[] fileData = IOUtils.toByteArray(inputStream);
-            inputStream.close();
+    /**
+     * 把上传流读完并写入out；图片在同一遍读取中解码生成缩略图（解码失败不影响上传）
+     */
+    private Map<Integer, byte[]> teeUpload(String fileName, InputStream input, OutputStream out, boolean image)
+            throws IOException {
+        TeeInputStream tee = new TeeInputStream(input, out);
+        Map<Integer, byte[]> thumbnails = null;
+        if (image) {
+            try {
+                thumbnails = renderThumbnails(tee);
+            } catch (IOException | RuntimeException e) {
+                if (tee.getFailure() != null) {
+                    // 读取或写出失败，上传本身已失败
+                    throw tee.getFailure();
+                }
+                logger.warn("上传时生成缩略图失败: {}, 错误: {}", fileName, e.getMessage());
+            }
+        }
+        // 解码器可能没有读完文件（例如尾部元数据），剩余部分照常写出
+        tee.drain();
+        return thumbnails;
+    }
 
-            logger.info("文本文件下载成功: {}", fileName);
-            return fileData;
+    /**
+     * 带断点记录的并行分片上传；重试时从断点继续，成功后删除暂存文件
+     */
+    private void uploadResumable(String bucketName, String fileName, Path spoolFile, String contentType) {
+        UploadFileRequest request = new UploadFileRequest(bucketName, fileName);
+        request.setUploadFile(spoolFile.toString());
+        request.setPartSize(ossConfig.getUploadPartSizeBytes());
+        request.setTaskNum(ossConfig.getUploadConcurrency());
+        request.setEnableCheckpoint(true);
+        request.setCheckpointFile(spoolFile + ".ucp");
+        if (contentType != null) {
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setContentType(contentType);
+            request.setObjectMetadata(metadata);
+        }
 
-        } catch (Exception e) {
-            logger.error("下载文本文件失败: {}, 错误: {}", fileName, e.getMessage());
-            return null;
+        ossCallExecutor.execute(bucketName, () -> {
+            try {
+                return ossClient.uploadFile(request);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new ClientException("分片上传失败: " + t.getMessage(), t);
+            }
+        });
+        deleteQuietly(spoolFile);
+    }
+
+    /**
+     * 上传完成后立即更新各级缓存
+     */
+    private Map<String, Object> onObjectUploaded(String bucketName, String fileName, Map<Integer, byte[]> thumbnails) {
+        String cacheKey = bucketName + ":" + fileName;
+        ObjectMetadata metadata = ossCallExecutor.execute(bucketName,
+            () -> ossClient.getObjectMetadata(bucketName, fileName));
+
+        // 文件列表缓存被并发读取，按写时复制更新
+        bucketFileListCache.computeIfPresent(bucketName, (bucket, files) -> {
+            if (files.contains(fileName)) {
+                return files;
+            }
+            Set<String> updated = new HashSet<>(files);
+            updated.add(fileName);
+            bucketFileListDigest.merge(bucketName, fileNameHash(fileName), Long::sum);
+            return updated;
+        });
+        fileExistenceCache.put(cacheKey, true);
+        negativeCache.remove(cacheKey);
+        if (localMirror != null) {
+            localMirror.invalidate(bucketName, fileName);
+        }
+
+        if (bucketName.equals(ossConfig.getImageBucketName())) {
+            imageLastModifiedIndex.put(fileName, metadata.getLastModified().getTime());
+            removeCachedThumbnail(fileName);
+            negativeCache.remove(thumbnailFailureKey(fileName));
+            // 衍生文件晚于原图写入才会被视为最新
+            if (thumbnails != null) {
+                storeThumbnails(fileName, thumbnails);
+                cacheThumbnail(fileName, thumbnails.get(ossConfig.getThumbnailWidth()));
+            }
+        }
+        if (bucketName.equals(ossConfig.getTextBucketName())) {
+            textPreviewCache.remove(fileName);
+            nonTextPreviewCache.remove(fileName);
+            csvRowIndexCache.remove(fileName);
+            negativeCache.remove(textPreviewFailureKey(fileName));
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("bucket", bucketName);
+        result.put("fileName", fileName);
+        result.put("size", metadata.getContentLength());
+        result.put("etag", metadata.getETag());
+        result.put("thumbnail", thumbnails != null);
+        return result;
+    }
+
+    private void validateUploadKey(String bucketName, String fileName) {
+        if (fileName == null || fileName.isBlank() || fileName.startsWith("/") || fileName.contains("\\")
+                || fileName.equals("..") || fileName.startsWith("../") || fileName.contains("/../")
+                || fileName.endsWith("/..") || thumbnailStore.isDerivativeKey(bucketName, fileName)) {
+            throw new IllegalArgumentException("非法的文件名: " + fileName);
+        }
+    }
+
+    private Path resumableSpoolFile(String bucketName, String fileName) {
+        return Paths.get(ossConfig.getUploadSpoolDir(), bucketName,
+            URLEncoder.encode(fileName, StandardCharsets.UTF_8));
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.debug("删除暂存文件失败: {}, 错误: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * 用桶列举结果同步本地镜像（未启用镜像时忽略）
+     */
+    public void syncMirror(String bucketName, List<OSSObjectSummary> summaries) {
+        if (localMirror != null) {
+            localMirror.sync(bucketName, summaries);
+        }
+    }
+
+    /**
+     * 打开对象内容流：镜像命中时读取本地文件，否则回源OSS（operation不为空时参与请求对冲）
+     */
+    private InputStream openObject(String operation, String bucketName, String fileName) throws Exception {
+        OssLocalMirror.Entry mirrorEntry = mirrorEntry(bucketName, fileName);
+        if (mirrorEntry != null) {
+            return Files.newInputStream(mirrorEntry.getPath());
+        }
+        GetObjectRequest request = new GetObjectRequest(bucketName, fileName);
+        if (operation == null) {
+            return ossCallExecutor.execute(bucketName, () -> ossClient.getObject(request)).getObjectContent();
         }
+        return getObjectHedged(operation, request).getObjectContent();
+    }
+
+    private boolean isParallelRange(long start, long end) {
+        return parallelRangeReader != null && end >= 0
+                && end - start + 1 >= ossConfig.getParallelThresholdBytes();
     }
 
     /**
@@ -476,7 +1906,12 @@ public class OssService {
 
             // 同时更新单文件缓存
             String cacheKey = bucketName + ":" + fileName;
-            fileExistenceCache.put(cacheKey, exists);
+            if (exists) {
+                fileExistenceCache.put(cacheKey, true);
+                negativeCache.remove(cacheKey);
+            } else {
+                negativeCache.recordMissing(cacheKey);
+            }
         }
 
         return results;
@@ -540,10 +1975,15 @@ public class OssService {
      */
     public void clearCache() {
         thumbnailCache.clear();
+        thumbnailLastUsed.clear();
         textPreviewCache.clear();
+        nonTextPreviewCache.clear();
         fileExistenceCache.clear();
+        negativeCache.clear();
+        csvRowIndexCache.clear();
         bucketFileListCache.clear();
         bucketFileListCacheTime.clear();
+        bucketFileListDigest.clear();
         logger.info("OSS缓存已清理");
     }
 
@@ -551,7 +1991,11 @@ public class OssService {
      * 获取缓存统计信息
      */
     public String getCacheStats() {
-        return String.format("缓存统计 - 缩略图: %d, 文本预览: %d, 文件存在性: %d",
-                thumbnailCache.size(), textPreviewCache.size(), fileExistenceCache.size());
+        return String.format("缓存统计 - 缩略图: %d, 文本预览: %d, 文件存在性: %d, 失败记录: %d, 缩略图队列: %d, 生成中: %d, OSS熔断: %s, 对冲/胜出: %s, 本地镜像: %s",
+                thumbnailCache.size(), textPreviewCache.size(), fileExistenceCache.size(), negativeCache.size(),
+                thumbnailWorkerPool.getQueueSize(), thumbnailWorkerPool.getActiveCount(),
+                ossCallExecutor.getBreakerStates(),
+                hedgedRequestExecutor != null ? hedgedRequestExecutor.getStats() : "未启用",
+                localMirror != null ? localMirror.size() + "个/" + localMirror.getUsedBytes() + "字节" : "未启用");
     }
 }
@@ -0,0 +1,224 @@
+package com.material.management.service;
+
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.OSSException;
+import com.aliyun.oss.model.GetObjectRequest;
+import com.aliyun.oss.model.OSSObject;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 大对象并行分段读取
+ * 单条连接的GET吞吐有限，把大对象按固定大小切成多个区间，在有界线程池上并发拉取：
+ * 写入输出流时按滑动窗口顺序重组（内存占用不超过 窗口×分段大小），
+ * 写入本地落盘文件时各分段按偏移直接写入；每个分段失败后单独重试。
+ * 各分段都带上HEAD时看到的ETag作为If-Match条件，读取过程中对象被覆盖时整体失败，
+ * 不会把两个版本的内容拼在一起；分段请求经OssCallExecutor执行，与其他OSS调用共用熔断器
+ *
+ * @author Material Management System
+ * @version 1.0.0
+ */
+public class ParallelRangeReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelRangeReader.class);
+
+    private static final long RETRY_BACKOFF_MS = 200;
+
+    /**
+     * 读取过程中对象已被覆盖（If-Match不成立，HTTP 412）
+     */
+    public static class ObjectChangedException extends IOException {
+        public ObjectChangedException(String key, Throwable cause) {
+            super("对象在读取过程中已被修改: " + key, cause);
+        }
+    }
+
+    private final OSS ossClient;
+    private final OssCallExecutor ossCallExecutor;
+    private final ExecutorService executor;
+    private final long partSize;
+    private final int window;
+    private final int maxRetries;
+
+    public ParallelRangeReader(OSS ossClient, OssCallExecutor ossCallExecutor,
+                               int threads, long partSize, int window, int maxRetries) {
+        this.ossClient = ossClient;
+        this.ossCallExecutor = ossCallExecutor;
+        this.partSize = partSize;
+        this.window = Math.max(1, window);
+        this.maxRetries = Math.max(0, maxRetries);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "oss-range-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 并行读取 [start, end] 区间，并按顺序写入输出流
+     *
+     * @param etag HEAD得到的ETag，为null时不校验版本
+     * @return 写出的字节数
+     * @throws ObjectChangedException 读取过程中对象被覆盖
+     */
+    public long read(String bucketName, String key, String etag, long start, long end,
+                     OutputStream outputStream) throws IOException {
+        List<long[]> parts = split(start, end);
+        Deque<Future<byte[]>> inFlight = new ArrayDeque<>();
+        int nextPart = 0;
+        long written = 0;
+
+        try {
+            while (nextPart < parts.size() && inFlight.size() < window) {
+                inFlight.add(submitPart(bucketName, key, etag, parts.get(nextPart++)));
+            }
+            while (!inFlight.isEmpty()) {
+                byte[] data = await(inFlight.poll(), key);
+                // 队首分段写出后立即补充下一个，保持窗口内始终有分段在拉取
+                if (nextPart < parts.size()) {
+                    inFlight.add(submitPart(bucketName, key, etag, parts.get(nextPart++)));
+                }
+                outputStream.write(data);
+                written += data.length;
+            }
+            outputStream.flush();
+        } finally {
+            for (Future<byte[]> future : inFlight) {
+                future.cancel(true);
+            }
+        }
+        return written;
+    }
+
+    /**
+     * 并行下载 [start, end] 区间到本地文件（各分段按偏移写入，不需要顺序等待）
+     *
+     * @param etag HEAD得到的ETag，为null时不校验版本
+     * @return 写入的字节数
+     * @throws ObjectChangedException 读取过程中对象被覆盖
+     */
+    public long readToFile(String bucketName, String key, String etag, long start, long end,
+                           Path target) throws IOException {
+        List<long[]> parts = split(start, end);
+        List<Future<Long>> futures = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (long[] part : parts) {
+                futures.add(executor.submit(() -> {
+                    ByteBuffer buffer = ByteBuffer.wrap(fetchPart(bucketName, key, etag, part[0], part[1]));
+                    long position = part[0] - start;
+                    while (buffer.hasRemaining()) {
+                        position += channel.write(buffer, position);
+                    }
+                    return part[1] - part[0] + 1;
+                }));
+            }
+
+            long written = 0;
+            for (Future<Long> future : futures) {
+                written += await(future, key);
+            }
+            channel.force(false);
+            return written;
+        } finally {
+            for (Future<Long> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private List<long[]> split(long start, long end) {
+        List<long[]> parts = new ArrayList<>();
+        for (long partStart = start; partStart <= end; partStart += partSize) {
+            parts.add(new long[]{partStart, Math.min(end, partStart + partSize - 1)});
+        }
+        return parts;
+    }
+
+    private Future<byte[]> submitPart(String bucketName, String key, String etag, long[] part) {
+        return executor.submit(() -> fetchPart(bucketName, key, etag, part[0], part[1]));
+    }
+
+    /**
+     * 拉取单个分段，长度不符或出错时重试；对象版本已变化时直接失败
+     */
+    private byte[] fetchPart(String bucketName, String key, String etag, long start, long end) throws Exception {
+        long expected = end - start + 1;
+        Exception lastError = null;
+
+        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+            if (attempt > 0) {
+                Thread.sleep(RETRY_BACKOFF_MS * attempt);
+            }
+            try {
+                GetObjectRequest request = new GetObjectRequest(bucketName, key);
+                request.setRange(start, end);
+                if (etag != null) {
+                    request.setMatchingETagConstraints(List.of(etag));
+                }
+                OSSObject ossObject = ossCallExecutor.execute(bucketName, () -> ossClient.getObject(request));
+                try (InputStream inputStream = ossObject.getObjectContent()) {
+                    byte[] data = IOUtils.toByteArray(inputStream);
+                    if (data.length == expected) {
+                        return data;
+                    }
+                    lastError = new IOException("分段长度不符: 期望 " + expected + ", 实际 " + data.length);
+                }
+            } catch (CircuitBreaker.OpenException e) {
+                throw e;
+            } catch (OSSException e) {
+                if ("PreconditionFailed".equals(e.getErrorCode())) {
+                    throw new ObjectChangedException(key, e);
+                }
+                lastError = e;
+            } catch (Exception e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                lastError = e;
+            }
+            logger.warn("分段拉取失败: {} [{}-{}], 第 {} 次, 错误: {}",
+                    key, start, end, attempt + 1, lastError.getMessage());
+        }
+        throw lastError;
+    }
+
+    private <T> T await(Future<T> future, String key) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("分段拉取被中断: " + key, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("分段拉取失败: " + key, cause);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.material.management.service;
+
+import com.material.management.model.DatabaseInfo;
+import com.material.management.model.TableInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 表元数据注册表
+ * 按 (数据库, 表) 索引TableInfo，单表按需加载，不必为了一张表扫描整个库；
+ * 每个库另存表名列表和汇总统计（表数、总行数），统计在整库元数据都已加载时直接求和，
+ * 否则用一次information_schema汇总查询得到。条目超过有效期或被作废后在下次访问时重新加载
+ *
+ * @author Material Management System
+ * @version 1.0.0
+ */
+public class TableMetadataRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TableMetadataRegistry.class);
+
+    /**
+     * 元数据的实际加载方式（由DatabaseService提供）
+     */
+    public interface Loader {
+        /**
+         * 列出库中的表名（SHOW TABLES顺序）
+         */
+        List<String> listTables(String databaseName);
+
+        /**
+         * 加载单个表的元数据；表不存在时返回null
+         *
+         * @param knownToExist 表名来自SHOW TABLES，无需再检查表是否存在
+         */
+        TableInfo loadTable(String databaseName, String tableName, boolean knownToExist);
+
+        /**
+         * 汇总统计：[表数, 总行数]
+         */
+        long[] loadAggregate(String databaseName);
+    }
+
+    private static final class TableEntry {
+        final TableInfo info;
+        final long loadedAt;
+
+        TableEntry(TableInfo info, long loadedAt) {
+            this.info = info;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private static final class SchemaEntry {
+        final Map<String, TableEntry> tables = new ConcurrentHashMap<>();
+        volatile List<String> tableNames;
+        volatile long tableNamesLoadedAt;
+        volatile DatabaseInfo aggregate;
+        volatile long aggregateLoadedAt;
+    }
+
+    private final Loader loader;
+    private final long ttlMillis;
+    private final Map<String, SchemaEntry> schemas = new ConcurrentHashMap<>();
+
+    public TableMetadataRegistry(Loader loader, long ttlMillis) {
+        this.loader = loader;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * 单表元数据；表不存在时返回null
+     */
+    public TableInfo getTable(String databaseName, String tableName) {
+        return getTable(databaseName, tableName, false);
+    }
+
+    private TableInfo getTable(String databaseName, String tableName, boolean knownToExist) {
+        SchemaEntry schema = schema(databaseName);
+        TableEntry entry = schema.tables.get(tableName);
+        if (entry != null && isFresh(entry.loadedAt)) {
+            return entry.info;
+        }
+
+        // 表名列表已缓存时可直接判断表是否存在
+        List<String> names = schema.tableNames;
+        if (!knownToExist && names != null && isFresh(schema.tableNamesLoadedAt)) {
+            if (!names.contains(tableName)) {
+                return null;
+            }
+            knownToExist = true;
+        }
+
+        TableInfo info = loader.loadTable(databaseName, tableName, knownToExist);
+        if (info == null) {
+            schema.tables.remove(tableName);
+            return null;
+        }
+        schema.tables.put(tableName, new TableEntry(info, System.currentTimeMillis()));
+        schema.aggregate = null;
+        logger.debug("加载表元数据: {}.{}", databaseName, tableName);
+        return info;
+    }
+
+    /**
+     * 库中全部表的元数据（已加载且未过期的表不再重复查询）
+     */
+    public List<TableInfo> getTables(String databaseName) {
+        List<TableInfo> tables = new ArrayList<>();
+        for (String tableName : getTableNames(databaseName)) {
+            TableInfo info = getTable(databaseName, tableName, true);
+            if (info != null) {
+                tables.add(info);
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * 库的汇总统计
+     */
+    public DatabaseInfo getStatistics(String databaseName) {
+        SchemaEntry schema = schema(databaseName);
+        DatabaseInfo aggregate = schema.aggregate;
+        if (aggregate != null && isFresh(schema.aggregateLoadedAt)) {
+            return aggregate;
+        }
+
+        // 整库元数据都在注册表中时直接求和，与表列表显示的行数一致
+        List<String> names = schema.tableNames;
+        if (names != null && isFresh(schema.tableNamesLoadedAt)) {
+            long totalRows = 0;
+            boolean complete = true;
+            for (String tableName : names) {
+                TableEntry entry = schema.tables.get(tableName);
+                if (entry == null || !isFresh(entry.loadedAt)) {
+                    complete = false;
+                    break;
+                }
+                totalRows += entry.info.getRowCount();
+            }
+            if (complete) {
+                aggregate = new DatabaseInfo(databaseName, names.size(), totalRows);
+            }
+        }
+
+        if (aggregate == null) {
+            long[] loaded = loader.loadAggregate(databaseName);
+            aggregate = new DatabaseInfo(databaseName, (int) loaded[0], loaded[1]);
+        }
+        schema.aggregate = aggregate;
+        schema.aggregateLoadedAt = System.currentTimeMillis();
+        return aggregate;
+    }
+
+    /**
+     * 作废单个表（及所在库的汇总统计）
+     */
+    public void invalidateTable(String databaseName, String tableName) {
+        SchemaEntry schema = schemas.get(databaseName);
+        if (schema != null) {
+            schema.tables.remove(tableName);
+            schema.aggregate = null;
+        }
+    }
+
+    /**
+     * 作废整个库的元数据
+     */
+    public void invalidateDatabase(String databaseName) {
+        schemas.remove(databaseName);
+    }
+
+    public void clear() {
+        schemas.clear();
+    }
+
+    /**
+     * 导出未过期的表名列表（库 -> 表名）
+     */
+    public Map<String, List<String>> exportTableNames() {
+        Map<String, List<String>> result = new HashMap<>();
+        schemas.forEach((databaseName, schema) -> {
+            List<String> names = schema.tableNames;
+            if (names != null && isFresh(schema.tableNamesLoadedAt)) {
+                result.put(databaseName, names);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 导出未过期的表元数据（库 -> 表信息）
+     */
+    public Map<String, List<TableInfo>> exportTables() {
+        Map<String, List<TableInfo>> result = new HashMap<>();
+        schemas.forEach((databaseName, schema) -> {
+            List<TableInfo> tables = new ArrayList<>();
+            schema.tables.values().forEach(entry -> {
+                if (isFresh(entry.loadedAt)) {
+                    tables.add(entry.info);
+                }
+            });
+            if (!tables.isEmpty()) {
+                result.put(databaseName, tables);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 从快照恢复一个库的元数据，按刚加载计算有效期（由调用方随后在后台校验）
+     */
+    public void restore(String databaseName, List<String> tableNames, List<TableInfo> tables) {
+        SchemaEntry schema = schema(databaseName);
+        long now = System.currentTimeMillis();
+        if (tableNames != null) {
+            schema.tableNames = List.copyOf(tableNames);
+            schema.tableNamesLoadedAt = now;
+        }
+        if (tables != null) {
+            for (TableInfo info : tables) {
+                schema.tables.put(info.getName(), new TableEntry(info, now));
+            }
+        }
+        schema.aggregate = null;
+    }
+
+    /**
+     * 已加载的表数量
+     */
+    public int size() {
+        return schemas.values().stream().mapToInt(schema -> schema.tables.size()).sum();
+    }
+
+    private List<String> getTableNames(String databaseName) {
+        SchemaEntry schema = schema(databaseName);
+        List<String> names = schema.tableNames;
+        if (names != null && isFresh(schema.tableNamesLoadedAt)) {
+            return names;
+        }
+
+        names = List.copyOf(loader.listTables(databaseName));
+        // 已删除的表移出注册表
+        schema.tables.keySet().retainAll(names);
+        schema.tableNames = names;
+        schema.tableNamesLoadedAt = System.currentTimeMillis();
+        schema.aggregate = null;
+        return names;
+    }
+
+    private SchemaEntry schema(String databaseName) {
+        return schemas.computeIfAbsent(databaseName, name -> new SchemaEntry());
+    }
+
+    private boolean isFresh(long loadedAt) {
+        return System.currentTimeMillis() - loadedAt < ttlMillis;
+    }
+}
@@ -0,0 +1,104 @@
+package com.material.management.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 分流输入流
+ * 读取到的每个字节同时写入分支输出流，使上传数据只需读取一遍就能一边写出一边解码；
+ * skip也会读取并写入分支；不支持mark/reset，close时不关闭分支。
+ * 读取源数据或写入分支的失败会被记录下来，便于调用方区分传输失败和解码失败
+ *
+ * @author Material Management System
+ * @version 1.0.0
+ */
+public class TeeInputStream extends FilterInputStream {
+
+    private static final int DRAIN_BUFFER_SIZE = 64 * 1024;
+
+    private final OutputStream branch;
+    private IOException failure;
+
+    public TeeInputStream(InputStream source, OutputStream branch) {
+        super(source);
+        this.branch = branch;
+    }
+
+    @Override
+    public int read() throws IOException {
+        try {
+            int b = super.read();
+            if (b >= 0) {
+                branch.write(b);
+            }
+            return b;
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        try {
+            int count = super.read(buffer, offset, length);
+            if (count > 0) {
+                branch.write(buffer, offset, count);
+            }
+            return count;
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(DRAIN_BUFFER_SIZE, Math.max(n, 0))];
+        long skipped = 0;
+        while (skipped < n) {
+            int count = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (count < 0) {
+                break;
+            }
+            skipped += count;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("不支持reset");
+    }
+
+    /**
+     * 读取源数据或写入分支时发生的错误，没有则为null
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * 读完剩余数据（全部写入分支），返回读取的字节数
+     */
+    public long drain() throws IOException {
+        byte[] buffer = new byte[DRAIN_BUFFER_SIZE];
+        long total = 0;
+        int count;
+        while ((count = read(buffer, 0, buffer.length)) >= 0) {
+            total += count;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,122 @@
+package com.material.management.service;
+
+import net.coobird.thumbnailator.Thumbnails;
+import net.coobird.thumbnailator.util.exif.ExifFilterUtils;
+import net.coobird.thumbnailator.util.exif.ExifUtils;
+import net.coobird.thumbnailator.util.exif.Orientation;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * 缩略图生成工具
+ * 先从图片头读取原始尺寸，再用ImageReadParam源采样直接解码出接近目标尺寸的图像，
+ * 避免把8000×6000这类大图完整解码进堆内存
+ *
+ * @author Material Management System
+ * @version 1.0.0
+ */
+public final class ThumbnailGenerator {
+
+    /**
+     * 解码尺寸至少保留目标尺寸的倍数，保证缩放后的清晰度
+     */
+    private static final int QUALITY_FACTOR = 2;
+
+    private ThumbnailGenerator() {}
+
+    /**
+     * 按目标尺寸采样解码图片，并按EXIF方向校正
+     *
+     * @param inputStream 原图数据流（由调用方关闭）
+     * @param targetWidth 最大目标宽度
+     * @param targetHeight 最大目标高度
+     */
+    public static BufferedImage decodeSubsampled(InputStream inputStream, int targetWidth, int targetHeight) throws IOException {
+        // 显式使用内存缓冲读取流，不依赖ImageIO的全局缓存设置，也不在临时目录写缓存文件
+        try (ImageInputStream imageInput = new MemoryCacheImageInputStream(inputStream)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) {
+                throw new IOException("不支持的图片格式");
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, false);
+
+                // 只读取文件头中的尺寸信息，不解码像素
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                int subsampling = computeSubsampling(sourceWidth, sourceHeight, targetWidth, targetHeight);
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+                BufferedImage image = reader.read(0, param);
+
+                Orientation orientation = readOrientation(reader);
+                if (orientation != null && orientation != Orientation.TOP_LEFT) {
+                    image = ExifFilterUtils.getFilterForOrientation(orientation).apply(image);
+                }
+                return image;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 缩放到不超过指定尺寸（保持宽高比，不放大）
+     */
+    public static BufferedImage scale(BufferedImage image, int maxWidth, int maxHeight) throws IOException {
+        if (image.getWidth() <= maxWidth && image.getHeight() <= maxHeight) {
+            return image;
+        }
+        return Thumbnails.of(image)
+                .size(maxWidth, maxHeight)
+                .asBufferedImage();
+    }
+
+    /**
+     * 按指定格式编码图片
+     */
+    public static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Thumbnails.of(image)
+                .scale(1.0)
+                .outputFormat(format)
+                .toOutputStream(output);
+        return output.toByteArray();
+    }
+
+    /**
+     * 计算源采样步长：缩放后仍保留至少QUALITY_FACTOR倍的目标像素
+     */
+    static int computeSubsampling(int sourceWidth, int sourceHeight, int targetWidth, int targetHeight) {
+        if (targetWidth <= 0 || targetHeight <= 0) {
+            return 1;
+        }
+        double ratio = Math.max((double) sourceWidth / targetWidth, (double) sourceHeight / targetHeight);
+        return Math.max(1, (int) Math.floor(ratio / QUALITY_FACTOR));
+    }
+
+    /**
+     * 读取EXIF方向信息，读取失败时按默认方向处理
+     */
+    private static Orientation readOrientation(ImageReader reader) {
+        try {
+            return ExifUtils.getExifOrientation(reader, 0);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
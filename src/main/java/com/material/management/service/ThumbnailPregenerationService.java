@@ -0,0 +1,185 @@
+package com.material.management.service;
+
+import com.aliyun.oss.model.OSSObjectSummary;
+import com.material.management.config.OssConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 缩略图后台预生成服务
+ * 定期列举图片桶，对新增或修改过的对象以最低优先级生成缩略图并写入衍生存储，
+ * 使页面上的按需请求几乎都能直接命中缓存。
+ * 扫描只负责把待生成的对象放入积压队列、不等待生成完成；同时排队的任务数有上限，
+ * 每完成一个就从积压队列补交一个，积压的对象持续处理而不必等到下一轮扫描，
+ * 既不长时间占用定时任务线程，也不会挤满视口请求共用的缩略图队列
+ *
+ * @author Material Management System
+ * @version 1.0.0
+ */
+@Service
+public class ThumbnailPregenerationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailPregenerationService.class);
+
+    @Autowired
+    private OssService ossService;
+
+    @Autowired
+    private OssConfig ossConfig;
+
+    // 上一轮扫描看到的对象ETag，用于识别新增和修改
+    private final Map<String, String> knownEtags = new ConcurrentHashMap<>();
+
+    // 待提交的对象（按扫描顺序），同一对象只保留最近一次扫描看到的版本；访问时持有自身的锁
+    private final LinkedHashMap<String, OSSObjectSummary> backlog = new LinkedHashMap<>();
+
+    // 已提交、尚未完成的对象键 -> ETag
+    private final Map<String, String> inProgress = new ConcurrentHashMap<>();
+
+    // 补交任务的请求计数：完成回调可能在提交时同步执行，由当前正在补交的线程循环处理，避免递归
+    private final AtomicInteger drainRequests = new AtomicInteger();
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // 已提交但尚未完成的预生成任务名额
+    private volatile Semaphore inFlight;
+
+    /**
+     * 定时扫描图片桶（上一轮未结束时跳过）
+     */
+    @Scheduled(initialDelayString = "${oss.pregenerate-initial-delay-ms:30000}",
+               fixedDelayString = "${oss.pregenerate-interval-ms:300000}")
+    public void scanImageBucket() {
+        if (!ossConfig.isPregenerateEnabled() || !running.compareAndSet(false, true)) {
+            return;
+        }
+
+        String bucketName = ossConfig.getImageBucketName();
+        try {
+            long startTime = System.currentTimeMillis();
+            List<OSSObjectSummary> summaries = ossService.listObjectSummaries(bucketName);
+
+            Set<String> currentKeys = new HashSet<>();
+            int changed = 0;
+            int queued;
+            synchronized (backlog) {
+                for (OSSObjectSummary summary : summaries) {
+                    String key = summary.getKey();
+                    currentKeys.add(key);
+                    if (summary.getETag().equals(knownEtags.get(key))
+                            || summary.getETag().equals(inProgress.get(key))) {
+                        continue;
+                    }
+                    changed++;
+                    backlog.put(key, summary);
+                }
+                // 已删除的对象不再生成
+                backlog.keySet().retainAll(currentKeys);
+                queued = backlog.size();
+            }
+            knownEtags.keySet().retainAll(currentKeys);
+
+            // 顺便刷新文件匹配用的列表缓存
+            ossService.updateFileListCache(bucketName, currentKeys);
+
+            logger.info("缩略图预生成扫描完成: {} 个对象, {} 个新增或修改, 积压 {} 个, 耗时: {}ms",
+                    summaries.size(), changed, queued, System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            logger.error("缩略图预生成扫描失败: {}", e.getMessage());
+        } finally {
+            running.set(false);
+        }
+        drainBacklog();
+    }
+
+    /**
+     * 在名额范围内从积压队列提交任务；每个任务完成时再次调用，直到队列清空
+     */
+    private void drainBacklog() {
+        if (drainRequests.getAndIncrement() > 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            submitAvailable();
+            missed = drainRequests.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void submitAvailable() {
+        Semaphore permits = inFlight();
+        while (permits.tryAcquire()) {
+            OSSObjectSummary summary;
+            synchronized (backlog) {
+                Iterator<OSSObjectSummary> iterator = backlog.values().iterator();
+                if (!iterator.hasNext()) {
+                    permits.release();
+                    return;
+                }
+                summary = iterator.next();
+                iterator.remove();
+                inProgress.put(summary.getKey(), summary.getETag());
+            }
+            if (!submit(summary, permits)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 提交单个对象
+     *
+     * @return 缩略图队列已满时返回false（对象放回积压队列，等其他任务完成或下一轮扫描时再提交）
+     */
+    private boolean submit(OSSObjectSummary summary, Semaphore permits) {
+        String key = summary.getKey();
+        CompletableFuture<Boolean> future;
+        try {
+            future = ossService.pregenerateThumbnail(summary);
+        } catch (RuntimeException e) {
+            logger.debug("提交缩略图预生成失败: {}, 错误: {}", key, e.getMessage());
+            future = CompletableFuture.completedFuture(false);
+        }
+        if (future.isCompletedExceptionally()) {
+            inProgress.remove(key, summary.getETag());
+            permits.release();
+            synchronized (backlog) {
+                backlog.putIfAbsent(key, summary);
+            }
+            return false;
+        }
+
+        // 只有缩略图就绪后才记录ETag，失败的下一轮扫描重试
+        future.whenComplete((ready, error) -> {
+            inProgress.remove(key, summary.getETag());
+            permits.release();
+            if (Boolean.TRUE.equals(ready)) {
+                knownEtags.put(key, summary.getETag());
+            }
+            drainBacklog();
+        });
+        return true;
+    }
+
+    private Semaphore inFlight() {
+        if (inFlight == null) {
+            inFlight = new Semaphore(Math.max(1, ossConfig.getPregenerateMaxInFlight()));
+        }
+        return inFlight;
+    }
+}
@@ -0,0 +1,149 @@
+package com.material.management.service;
+
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.model.OSSObject;
+import com.aliyun.oss.model.ObjectMetadata;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * 缩略图衍生文件存储
+ * 支持本地磁盘目录或图片桶中的衍生前缀两种模式，
+ * 每个衍生文件按 {规格}/{原文件名} 存放，修改时间早于原图时视为过期
+ *
+ * @author Material Management System
+ * @version 1.0.0
+ */
+public class ThumbnailStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailStore.class);
+
+    private final OSS ossClient;
+    private final String bucketName;
+    private final String prefix;
+    private final Path localDir;
+
+    private ThumbnailStore(OSS ossClient, String bucketName, String prefix, Path localDir) {
+        this.ossClient = ossClient;
+        this.bucketName = bucketName;
+        this.prefix = prefix;
+        this.localDir = localDir;
+    }
+
+    /**
+     * 本地磁盘存储
+     */
+    public static ThumbnailStore local(String directory) {
+        return new ThumbnailStore(null, null, null, Paths.get(directory).toAbsolutePath().normalize());
+    }
+
+    /**
+     * OSS桶内衍生前缀存储
+     */
+    public static ThumbnailStore oss(OSS ossClient, String bucketName, String prefix) {
+        String normalizedPrefix = prefix.endsWith("/") ? prefix : prefix + "/";
+        return new ThumbnailStore(ossClient, bucketName, normalizedPrefix, null);
+    }
+
+    /**
+     * 判断对象键是否属于衍生文件（列举原图时需要跳过）
+     */
+    public boolean isDerivativeKey(String bucket, String key) {
+        return prefix != null && bucket.equals(bucketName) && key.startsWith(prefix);
+    }
+
+    /**
+     * 读取衍生文件；不存在或早于notBefore（原图修改时间）时返回null
+     */
+    public byte[] read(String fileName, String variant, long notBefore) {
+        try {
+            if (localDir != null) {
+                Path path = resolveLocal(fileName, variant);
+                if (!Files.exists(path) || Files.getLastModifiedTime(path).toMillis() < notBefore) {
+                    return null;
+                }
+                return Files.readAllBytes(path);
+            }
+
+            String key = ossKey(fileName, variant);
+            if (!ossClient.doesObjectExist(bucketName, key)) {
+                return null;
+            }
+            OSSObject ossObject = ossClient.getObject(bucketName, key);
+            try (InputStream inputStream = ossObject.getObjectContent()) {
+                if (ossObject.getObjectMetadata().getLastModified().getTime() < notBefore) {
+                    return null;
+                }
+                return IOUtils.toByteArray(inputStream);
+            }
+        } catch (Exception e) {
+            logger.debug("读取衍生缩略图失败: {} [{}], 错误: {}", fileName, variant, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 判断衍生文件是否存在且不早于原图
+     */
+    public boolean isFresh(String fileName, String variant, long notBefore) {
+        try {
+            if (localDir != null) {
+                Path path = resolveLocal(fileName, variant);
+                return Files.exists(path) && Files.getLastModifiedTime(path).toMillis() >= notBefore;
+            }
+
+            String key = ossKey(fileName, variant);
+            if (!ossClient.doesObjectExist(bucketName, key)) {
+                return false;
+            }
+            ObjectMetadata metadata = ossClient.getObjectMetadata(bucketName, key);
+            return metadata.getLastModified().getTime() >= notBefore;
+        } catch (Exception e) {
+            logger.debug("检查衍生缩略图失败: {} [{}], 错误: {}", fileName, variant, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 写入衍生文件（本地模式先写临时文件再原子替换）
+     */
+    public void write(String fileName, String variant, byte[] data) {
+        try {
+            if (localDir != null) {
+                Path path = resolveLocal(fileName, variant);
+                Files.createDirectories(path.getParent());
+                Path tempFile = Files.createTempFile(path.getParent(), ".thumb", ".tmp");
+                Files.write(tempFile, data);
+                Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                return;
+            }
+
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setContentLength(data.length);
+            ossClient.putObject(bucketName, ossKey(fileName, variant), new ByteArrayInputStream(data), metadata);
+        } catch (Exception e) {
+            logger.warn("写入衍生缩略图失败: {} [{}], 错误: {}", fileName, variant, e.getMessage());
+        }
+    }
+
+    private String ossKey(String fileName, String variant) {
+        return prefix + variant + "/" + fileName;
+    }
+
+    private Path resolveLocal(String fileName, String variant) throws IOException {
+        Path path = localDir.resolve(variant).resolve(fileName).normalize();
+        if (!path.startsWith(localDir)) {
+            throw new IOException("非法的文件名: " + fileName);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,218 @@
+package com.material.management.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 缩略图生成工作线程池
+ * 固定数量的工作线程 + 有界优先级队列：
+ * 同一个文件只生成一次（按key去重），视口内的请求优先于预取，
+ * 所有等待者都离开（客户端断开或超时）且尚未开始的任务直接丢弃
+ *
+ * @author Material Management System
+ * @version 1.0.0
+ */
+public class ThumbnailWorkerPool<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailWorkerPool.class);
+
+    /**
+     * 任务优先级，数值越小越先执行
+     */
+    public enum Priority {
+        VIEWPORT,   // 当前视口内的行
+        PREFETCH,   // 推测性预取
+        BACKGROUND; // 后台预生成
+
+        public static Priority fromParam(String value) {
+            return "prefetch".equalsIgnoreCase(value) ? PREFETCH : VIEWPORT;
+        }
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final ConcurrentHashMap<String, Job> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public ThumbnailWorkerPool(int workers, int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new PriorityBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "thumbnail-worker-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * 提交缩略图任务；相同key的任务合并为一个，必要时提升其优先级
+     *
+     * @throws RejectedExecutionException 队列已满
+     */
+    public Ticket<T> submit(String key, Priority priority, Callable<T> task) {
+        while (true) {
+            Job existing = jobs.get(key);
+            if (existing != null) {
+                if (existing.join()) {
+                    existing.promote(priority);
+                    return new Ticket<>(existing);
+                }
+                // 任务刚被丢弃，重新创建
+                jobs.remove(key, existing);
+                continue;
+            }
+
+            if (executor.getQueue().size() >= queueCapacity) {
+                throw new RejectedExecutionException("缩略图队列已满: " + queueCapacity);
+            }
+
+            Job job = new Job(key, priority, task);
+            if (jobs.putIfAbsent(key, job) != null) {
+                continue;
+            }
+            executor.execute(job);
+            return new Ticket<>(job);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * 调用方持有的任务句柄，等待结束后必须release
+     */
+    public static class Ticket<T> {
+        private final ThumbnailWorkerPool<T>.Job job;
+        private boolean released;
+
+        private Ticket(ThumbnailWorkerPool<T>.Job job) {
+            this.job = job;
+        }
+
+        public T await(long timeoutMillis) throws InterruptedException, ExecutionException, TimeoutException {
+            return job.result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * 不阻塞地等待结果（返回的是副本，超时或取消不影响其他等待者）
+         */
+        public CompletableFuture<T> toFuture() {
+            return job.result.copy();
+        }
+
+        public synchronized void release() {
+            if (!released) {
+                released = true;
+                job.leave();
+            }
+        }
+    }
+
+    /**
+     * 队列中的单个生成任务
+     */
+    private class Job implements Runnable, Comparable<Job> {
+        private final String key;
+        private final Callable<T> task;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private volatile Priority priority;
+        private volatile long order;
+        private int waiters;
+        private boolean started;
+        private boolean dropped;
+
+        Job(String key, Priority priority, Callable<T> task) {
+            this.key = key;
+            this.priority = priority;
+            this.task = task;
+            this.order = sequence.incrementAndGet();
+            this.waiters = 1;
+        }
+
+        synchronized boolean join() {
+            if (dropped) {
+                return false;
+            }
+            waiters++;
+            return true;
+        }
+
+        void promote(Priority requested) {
+            synchronized (this) {
+                if (started || requested.ordinal() >= priority.ordinal()) {
+                    return;
+                }
+            }
+            // PriorityBlockingQueue不会重新排序，需要移除后重新放入
+            if (executor.getQueue().remove(this)) {
+                synchronized (this) {
+                    priority = requested;
+                    order = sequence.incrementAndGet();
+                }
+                executor.execute(this);
+            }
+        }
+
+        void leave() {
+            boolean drop;
+            synchronized (this) {
+                waiters--;
+                drop = waiters <= 0 && !started && !dropped;
+                if (drop) {
+                    dropped = true;
+                }
+            }
+            if (drop) {
+                executor.getQueue().remove(this);
+                jobs.remove(key, this);
+                result.cancel(false);
+                logger.debug("缩略图任务已无等待者，丢弃: {}", key);
+            }
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (dropped) {
+                    return;
+                }
+                started = true;
+            }
+            try {
+                result.complete(task.call());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            } finally {
+                jobs.remove(key, this);
+            }
+        }
+
+        @Override
+        public int compareTo(Job other) {
+            int byPriority = Integer.compare(priority.ordinal(), other.priority.ordinal());
+            return byPriority != 0 ? byPriority : Long.compare(order, other.order);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.material.management.service;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.material.management.model.WarmStartSnapshot;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 预热快照服务
+ * 定期把表元数据、行数估计、变更指纹、桶文件索引和热点缩略图列表写入本地文件（gzip压缩的CBOR），
+ * 启动时在Web服务开始接收请求前读回，新实例一上线就能直接使用这些缓存；
+ * 启动完成后在后台校验：指纹有变化的库重新加载，桶重新列举，热点缩略图从衍生存储读回内存
+ *
+ * @author Material Management System
+ * @version 1.0.0
+ */
+@Service
+public class WarmStartSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmStartSnapshotService.class);
+
+    private static final int SNAPSHOT_VERSION = 1;
+
+    @Autowired
+    private DatabaseService databaseService;
+
+    @Autowired
+    private OssService ossService;
+
+    @Value("${material.management.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${material.management.snapshot.path:data/warm-start.snapshot}")
+    private String path;
+
+    @Value("${material.management.snapshot.max-age-ms:86400000}")
+    private long maxAgeMs;
+
+    @Value("${material.management.snapshot.hot-thumbnails:500}")
+    private int hotThumbnails;
+
+    private final CBORMapper cborMapper = new CBORMapper();
+
+    // 启动时读回的快照，后台校验完成后释放
+    private volatile WarmStartSnapshot restored;
+
+    /**
+     * 启动时恢复（在Web服务开始接收请求之前执行）
+     */
+    @PostConstruct
+    public void restore() {
+        if (!enabled) {
+            return;
+        }
+        Path file = Paths.get(path);
+        if (!Files.exists(file)) {
+            logger.info("没有预热快照，冷启动: {}", file.toAbsolutePath());
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file), 64 * 1024)) {
+            WarmStartSnapshot snapshot = cborMapper.readValue(in, WarmStartSnapshot.class);
+            if (snapshot.getVersion() != SNAPSHOT_VERSION) {
+                logger.warn("预热快照版本不匹配，忽略: {}", snapshot.getVersion());
+                return;
+            }
+            if (startTime - snapshot.getCreatedAt() > maxAgeMs) {
+                logger.info("预热快照已过期，忽略: 创建于 {}ms 前", startTime - snapshot.getCreatedAt());
+                return;
+            }
+
+            databaseService.restoreWarmStart(snapshot);
+            ossService.restoreWarmStart(snapshot);
+            restored = snapshot;
+            logger.info("预热快照恢复完成: {}, 耗时: {}ms", snapshot, System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            // 快照损坏或格式变化时不影响启动
+            logger.warn("读取预热快照失败，冷启动: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 启动完成后在后台校验恢复的缓存
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void revalidateInBackground() {
+        WarmStartSnapshot snapshot = restored;
+        if (snapshot == null) {
+            return;
+        }
+        Thread thread = new Thread(() -> revalidate(snapshot), "warm-start-revalidate");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void revalidate(WarmStartSnapshot snapshot) {
+        long startTime = System.currentTimeMillis();
+
+        // 先重新列举桶：图片的修改时间就绪后才能判断衍生存储中的缩略图是否过期
+        Set<String> buckets = new HashSet<>(snapshot.getBucketFiles().keySet());
+        if (snapshot.getHotThumbnails() != null && !snapshot.getHotThumbnails().isEmpty()) {
+            buckets.add(ossService.getOssConfig().getImageBucketName());
+        }
+        for (String bucketName : buckets) {
+            try {
+                ossService.refreshBucketIndex(bucketName, ossService.listObjectSummaries(bucketName));
+            } catch (Exception e) {
+                logger.warn("刷新桶文件索引失败: {}, 错误: {}", bucketName, e.getMessage());
+            }
+        }
+
+        int thumbnails = 0;
+        if (snapshot.getHotThumbnails() != null) {
+            thumbnails = ossService.preloadThumbnails(snapshot.getHotThumbnails());
+        }
+
+        // 库的指纹有变化时getSchemaFingerprint会淘汰该库的元数据，随后重新加载
+        Set<String> databases = new HashSet<>(snapshot.getTableNames().keySet());
+        databases.addAll(snapshot.getTables().keySet());
+        for (String databaseName : databases) {
+            try {
+                databaseService.getSchemaFingerprint(databaseName);
+                databaseService.getTables(databaseName);
+            } catch (Exception e) {
+                logger.warn("校验库元数据失败: {}, 错误: {}", databaseName, e.getMessage());
+            }
+        }
+
+        restored = null;
+        logger.info("预热快照后台校验完成: {} 个库, {} 个桶, 读回 {} 个缩略图, 耗时: {}ms",
+                databases.size(), buckets.size(), thumbnails, System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * 定期保存快照
+     */
+    @Scheduled(initialDelayString = "${material.management.snapshot.interval-ms:600000}",
+               fixedDelayString = "${material.management.snapshot.interval-ms:600000}")
+    public void saveSnapshot() {
+        if (!enabled) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        Path file = Paths.get(path).toAbsolutePath();
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            WarmStartSnapshot snapshot = new WarmStartSnapshot();
+            snapshot.setVersion(SNAPSHOT_VERSION);
+            snapshot.setCreatedAt(startTime);
+            databaseService.exportWarmStart(snapshot);
+            ossService.exportWarmStart(snapshot, hotThumbnails);
+
+            Files.createDirectories(file.getParent());
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tempFile), 64 * 1024)) {
+                cborMapper.writeValue(out, snapshot);
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("预热快照已保存: {}, {} 字节, 耗时: {}ms", snapshot, Files.size(file),
+                    System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            logger.warn("保存预热快照失败: {}", e.getMessage());
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException deleteError) {
+                logger.debug("删除临时快照失败: {}", deleteError.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 正常停机时保存一次，下一个实例启动时拿到的是最新的状态
+     */
+    @PreDestroy
+    public void saveOnShutdown() {
+        saveSnapshot();
+    }
+}
@@ -0,0 +1,124 @@
+package com.material.management.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.material.management.config.OssConfig;
+import com.material.management.service.OssService;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 非阻塞下载接口：OSS返回的状态码和区间响应头必须原样转发给客户端
+ */
+class NonBlockingOssServletTest {
+
+    private static final byte[] CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.US_ASCII);
+
+    private HttpServer fakeOss;
+    private WebServer webServer;
+    private OssService ossService;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // 模拟OSS：支持 "bytes=a-b" 形式的单个区间
+        fakeOss = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        fakeOss.createContext("/", exchange -> {
+            if (exchange.getRequestURI().getPath().endsWith("/missing.bin")) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            byte[] body = CONTENT;
+            int status = 200;
+            if (range != null) {
+                String[] bounds = range.substring("bytes=".length()).split("-");
+                int start = Integer.parseInt(bounds[0]);
+                int end = Integer.parseInt(bounds[1]);
+                body = Arrays.copyOfRange(CONTENT, start, end + 1);
+                status = 206;
+                exchange.getResponseHeaders().set("Content-Range",
+                        "bytes " + start + "-" + end + "/" + CONTENT.length);
+            }
+            exchange.getResponseHeaders().set("ETag", "\"v1\"");
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        fakeOss.start();
+
+        OssConfig ossConfig = new OssConfig();
+        ossConfig.setImageBucketName("image-bucket");
+        ossConfig.setTextBucketName("text-bucket");
+
+        ossService = mock(OssService.class);
+        when(ossService.getOssConfig()).thenReturn(ossConfig);
+        when(ossService.isBucketAvailable(anyString())).thenReturn(true);
+        when(ossService.tryAcquireBucket(anyString())).thenReturn(true);
+        when(ossService.presignGetUrl(anyString(), anyString())).thenAnswer(invocation ->
+                new URL("http://127.0.0.1:" + fakeOss.getAddress().getPort()
+                        + "/" + invocation.getArgument(0) + "/" + invocation.getArgument(1)));
+
+        NonBlockingOssServlet servlet = new NonBlockingOssServlet(ossService, new ObjectMapper());
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+        webServer = factory.getWebServer(context -> {
+            var registration = context.addServlet("nonBlockingOssServlet", servlet);
+            registration.addMapping("/api/nb/*");
+            registration.setAsyncSupported(true);
+            registration.setLoadOnStartup(1);
+        });
+        webServer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        webServer.stop();
+        fakeOss.stop(0);
+    }
+
+    @Test
+    void rangedDownloadReturnsPartialContent() throws Exception {
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(downloadUri("file.bin"))
+                .header("Range", "bytes=10-19")
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals(206, response.statusCode());
+        assertEquals("bytes 10-19/" + CONTENT.length, response.headers().firstValue("Content-Range").orElse(null));
+        assertEquals("10", response.headers().firstValue("Content-Length").orElse(null));
+        assertArrayEquals(Arrays.copyOfRange(CONTENT, 10, 20), response.body());
+        verify(ossService).recordBucketOutcome(eq("image-bucket"), eq(true));
+    }
+
+    @Test
+    void missingObjectReturnsNotFound() throws Exception {
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(downloadUri("missing.bin")).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals(404, response.statusCode());
+    }
+
+    private URI downloadUri(String fileName) {
+        return URI.create("http://127.0.0.1:" + webServer.getPort() + "/api/nb/download/image/" + fileName);
+    }
+}
@@ -0,0 +1,99 @@
+package com.material.management.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * CSV字节流解析：引号内的逗号和换行、CRLF、BOM，以及从记录起始偏移恢复读取
+ */
+class CsvStreamReaderTest {
+
+    private static final String CSV = "\uFEFFid,名称,备注\r\n"
+            + "1,\"x,\r\ny\",普通\r\n"
+            + "2,\"he said \"\"hi\"\"\", 去空白 \n"
+            + "\n"
+            + "3,中文,\"\"\r\n"
+            + "4,last,end";
+
+    private static final List<List<String>> EXPECTED = List.of(
+            List.of("id", "名称", "备注"),
+            List.of("1", "x,\r\ny", "普通"),
+            List.of("2", "he said \"hi\"", "去空白"),
+            List.of("3", "中文", ""),
+            List.of("4", "last", "end"));
+
+    private final byte[] bytes = CSV.getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void parsesQuotedFieldsLineBreaksAndBom() throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        try (CsvStreamReader reader = new CsvStreamReader(new ByteArrayInputStream(bytes), 0)) {
+            List<String> record;
+            while ((record = reader.nextRecord()) != null) {
+                records.add(record);
+            }
+        }
+
+        assertEquals(EXPECTED, records);
+    }
+
+    @Test
+    void recordStartsAreByteOffsetsAfterBom() throws IOException {
+        List<Long> starts = recordStarts();
+
+        // UTF-8 BOM占3个字节，空行不产生记录
+        assertEquals(3L, starts.get(0));
+        assertEquals(EXPECTED.size(), starts.size());
+        for (int i = 0; i < starts.size(); i++) {
+            String line = new String(bytes, starts.get(i).intValue(), 1, StandardCharsets.UTF_8);
+            assertEquals(EXPECTED.get(i).get(0).substring(0, 1), line);
+        }
+    }
+
+    @Test
+    void resumesFromAnyRecordStart() throws IOException {
+        List<Long> starts = recordStarts();
+
+        for (int i = 1; i < starts.size(); i++) {
+            long start = starts.get(i);
+            byte[] tail = Arrays.copyOfRange(bytes, (int) start, bytes.length);
+            try (CsvStreamReader reader = new CsvStreamReader(new ByteArrayInputStream(tail), start)) {
+                for (int j = i; j < EXPECTED.size(); j++) {
+                    assertEquals(EXPECTED.get(j), reader.nextRecord());
+                    assertEquals(starts.get(j), reader.getRecordStart());
+                }
+                assertNull(reader.nextRecord());
+            }
+        }
+    }
+
+    @Test
+    void fieldsLongerThanInitialBufferAreKept() throws IOException {
+        String longValue = "长".repeat(1000);
+        byte[] data = ("a,\"" + longValue + "\"\n").getBytes(StandardCharsets.UTF_8);
+
+        try (CsvStreamReader reader = new CsvStreamReader(new ByteArrayInputStream(data), 0)) {
+            assertEquals(List.of("a", longValue), reader.nextRecord());
+            assertNull(reader.nextRecord());
+        }
+    }
+
+    private List<Long> recordStarts() throws IOException {
+        List<Long> starts = new ArrayList<>();
+        try (CsvStreamReader reader = new CsvStreamReader(new ByteArrayInputStream(bytes), 0)) {
+            while (reader.nextRecord() != null) {
+                starts.add(reader.getRecordStart());
+            }
+        }
+        return starts;
+    }
+}
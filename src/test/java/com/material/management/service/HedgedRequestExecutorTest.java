@@ -0,0 +1,156 @@
+package com.material.management.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 对冲请求执行器：胜出选择、对冲预算、调用方放弃时的释放、全部失败时的错误
+ */
+class HedgedRequestExecutorTest {
+
+    private final HedgedRequestExecutor executor = new HedgedRequestExecutor(2, 95, 1, 10, 1.0);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void realErrorWinsOverLaterBreakerRejection() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        // 首发请求先以真实错误失败，对冲请求后被熔断器拒绝
+        IllegalStateException error = assertThrows(IllegalStateException.class, () ->
+                executor.execute("get", () -> {
+                    int attempt = attempts.incrementAndGet();
+                    Thread.sleep(attempt == 1 ? 30 : 60);
+                    if (attempt == 1) {
+                        throw new IllegalStateException("oss error");
+                    }
+                    throw new CircuitBreaker.OpenException("oss:bucket");
+                }, null));
+
+        assertEquals("oss error", error.getMessage());
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void realErrorWinsOverEarlierBreakerRejection() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () ->
+                executor.execute("get", () -> {
+                    int attempt = attempts.incrementAndGet();
+                    if (attempt == 1) {
+                        Thread.sleep(60);
+                        throw new IllegalStateException("oss error");
+                    }
+                    throw new CircuitBreaker.OpenException("oss:bucket");
+                }, null));
+
+        assertEquals("oss error", error.getMessage());
+    }
+
+    @Test
+    void fastPrimaryIsNotHedged() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = executor.execute("get", () -> {
+            attempts.incrementAndGet();
+            return "primary";
+        }, null);
+
+        assertEquals("primary", result);
+        assertEquals(1, attempts.get());
+        assertEquals("0/0", executor.getStats());
+    }
+
+    @Test
+    void slowPrimaryLosesToHedgeAndIsDiscarded() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        List<String> discarded = new CopyOnWriteArrayList<>();
+        CountDownLatch discardedLatch = new CountDownLatch(1);
+
+        String result = executor.execute("get", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                Thread.sleep(200);
+                return "slow";
+            }
+            return "fast";
+        }, value -> {
+            discarded.add(value);
+            discardedLatch.countDown();
+        });
+
+        assertEquals("fast", result);
+        assertTrue(discardedLatch.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of("slow"), discarded);
+        assertEquals("1/1", executor.getStats());
+    }
+
+    @Test
+    void hedgesAreLimitedByBudget() throws Exception {
+        // 每个请求积累0.5个令牌：第一个请求不能对冲，第二个请求可以
+        HedgedRequestExecutor budgeted = new HedgedRequestExecutor(2, 95, 1, 10, 0.5);
+        AtomicInteger attempts = new AtomicInteger();
+        try {
+            for (int i = 0; i < 2; i++) {
+                budgeted.execute("get", () -> {
+                    attempts.incrementAndGet();
+                    Thread.sleep(50);
+                    return "value";
+                }, null);
+            }
+        } finally {
+            budgeted.shutdown();
+        }
+
+        assertEquals(3, attempts.get());
+        assertEquals(1, Integer.parseInt(budgeted.getStats().split("/")[0]));
+    }
+
+    @Test
+    void abandonedCallReleasesLateResult() throws Exception {
+        HedgedRequestExecutor unhedged = new HedgedRequestExecutor(1, 95, 1, 10, 0);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch discarded = new CountDownLatch(1);
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        AtomicReference<Boolean> interruptedAfter = new AtomicReference<>();
+        try {
+            Thread caller = new Thread(() -> {
+                try {
+                    unhedged.execute("get", () -> {
+                        started.countDown();
+                        Thread.sleep(150);
+                        return "late";
+                    }, value -> discarded.countDown());
+                } catch (Exception e) {
+                    thrown.set(e);
+                }
+                interruptedAfter.set(Thread.currentThread().isInterrupted());
+            });
+            caller.start();
+            assertTrue(started.await(2, TimeUnit.SECONDS));
+            caller.interrupt();
+            caller.join(2000);
+
+            assertTrue(thrown.get() instanceof InterruptedException);
+            assertTrue(interruptedAfter.get());
+            // 调用方离开后才完成的结果交给discard释放
+            assertTrue(discarded.await(2, TimeUnit.SECONDS));
+        } finally {
+            unhedged.shutdown();
+        }
+    }
+}
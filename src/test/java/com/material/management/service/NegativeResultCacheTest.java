@@ -0,0 +1,111 @@
+package com.material.management.service;
+
+import com.aliyun.oss.ClientException;
+import com.aliyun.oss.OSSException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 失败结果缓存：按类别的TTL、连续失败的指数退避和上限、条目数上限
+ */
+class NegativeResultCacheTest {
+
+    @Test
+    void missingObjectIsBlockedUntilTtlExpires() throws InterruptedException {
+        NegativeResultCache cache = new NegativeResultCache(40, 1000, 1000, 5000, 100);
+
+        cache.recordMissing("a.jpg");
+        assertTrue(cache.isBlocked("a.jpg"));
+        assertFalse(cache.isBlocked("b.jpg"));
+
+        Thread.sleep(80);
+        assertFalse(cache.isBlocked("a.jpg"));
+    }
+
+    @Test
+    void repeatedMissesDoNotBackOff() throws InterruptedException {
+        NegativeResultCache cache = new NegativeResultCache(40, 1000, 1000, 5000, 100);
+
+        for (int i = 0; i < 5; i++) {
+            cache.recordMissing("a.jpg");
+        }
+
+        Thread.sleep(80);
+        assertFalse(cache.isBlocked("a.jpg"));
+    }
+
+    @Test
+    void repeatedErrorsBackOffExponentially() throws InterruptedException {
+        NegativeResultCache cache = new NegativeResultCache(1000, 40, 1000, 5000, 100);
+
+        cache.recordError("once.jpg", new ClientException("timeout"));
+        for (int i = 0; i < 3; i++) {
+            cache.recordError("thrice.jpg", new ClientException("timeout"));
+        }
+
+        // 一次失败40ms后过期，连续三次失败退避到160ms
+        Thread.sleep(80);
+        assertFalse(cache.isBlocked("once.jpg"));
+        assertTrue(cache.isBlocked("thrice.jpg"));
+    }
+
+    @Test
+    void backoffIsCappedAtMaxTtl() throws InterruptedException {
+        NegativeResultCache cache = new NegativeResultCache(1000, 40, 1000, 60, 100);
+
+        for (int i = 0; i < 10; i++) {
+            cache.recordError("a.jpg", new ClientException("timeout"));
+        }
+
+        Thread.sleep(100);
+        assertFalse(cache.isBlocked("a.jpg"));
+    }
+
+    @Test
+    void removeClearsEntry() {
+        NegativeResultCache cache = new NegativeResultCache(1000, 1000, 1000, 5000, 100);
+
+        cache.recordError("a.jpg", new IOException("corrupt"));
+        cache.remove("a.jpg");
+
+        assertFalse(cache.isBlocked("a.jpg"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBeyondMaxEntries() {
+        NegativeResultCache cache = new NegativeResultCache(1000, 1000, 1000, 5000, 2);
+
+        cache.recordMissing("a.jpg");
+        cache.recordMissing("b.jpg");
+        // 访问a后，b成为最久未访问的条目
+        assertTrue(cache.isBlocked("a.jpg"));
+        cache.recordMissing("c.jpg");
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.isBlocked("a.jpg"));
+        assertFalse(cache.isBlocked("b.jpg"));
+        assertTrue(cache.isBlocked("c.jpg"));
+    }
+
+    @Test
+    void classifiesErrors() {
+        assertEquals(NegativeResultCache.Kind.MISSING, NegativeResultCache.classify(ossError("NoSuchKey")));
+        assertEquals(NegativeResultCache.Kind.TRANSIENT_ERROR, NegativeResultCache.classify(ossError("ServiceUnavailable")));
+        assertEquals(NegativeResultCache.Kind.PERMANENT_ERROR, NegativeResultCache.classify(ossError("AccessDenied")));
+        assertEquals(NegativeResultCache.Kind.TRANSIENT_ERROR, NegativeResultCache.classify(
+                new RuntimeException(new ClientException("timeout"))));
+        assertEquals(NegativeResultCache.Kind.TRANSIENT_ERROR, NegativeResultCache.classify(
+                new CircuitBreaker.OpenException("oss:bucket")));
+        assertEquals(NegativeResultCache.Kind.PERMANENT_ERROR, NegativeResultCache.classify(new IOException("无法解码")));
+    }
+
+    private static OSSException ossError(String errorCode) {
+        return new OSSException("error", errorCode, "request", "host", null, null, "GET");
+    }
+}
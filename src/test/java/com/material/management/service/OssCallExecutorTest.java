@@ -0,0 +1,131 @@
+package com.material.management.service;
+
+import com.aliyun.oss.ClientException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * OSS调用执行器：重试后计入熔断器，对冲调用只占用一次放行名额、只记录一次结果
+ */
+class OssCallExecutorTest {
+
+    private static final String BUCKET = "bucket";
+    private static final long OPEN_MILLIS = 50;
+
+    private final HedgedRequestExecutor hedger = new HedgedRequestExecutor(2, 95, 1, 10, 1.0);
+
+    @AfterEach
+    void tearDown() {
+        hedger.shutdown();
+    }
+
+    @Test
+    void businessErrorsDoNotOpenBreaker() {
+        OssCallExecutor executor = new OssCallExecutor(1, 0, 0, 1, OPEN_MILLIS);
+
+        assertThrows(IllegalArgumentException.class, () -> executor.execute(BUCKET, () -> {
+            throw new IllegalArgumentException("not found");
+        }));
+        assertTrue(executor.isAvailable(BUCKET));
+    }
+
+    @Test
+    void retryableErrorsAreRetriedBeforeOpeningBreaker() {
+        OssCallExecutor executor = new OssCallExecutor(3, 0, 0, 1, OPEN_MILLIS);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ClientException.class, () -> executor.execute(BUCKET, () -> {
+            attempts.incrementAndGet();
+            throw new ClientException("timeout");
+        }));
+        assertEquals(3, attempts.get());
+        assertFalse(executor.isAvailable(BUCKET));
+    }
+
+    @Test
+    void hedgedProbeInHalfOpenReleasesBreakerWhenBothAttemptsFail() throws Exception {
+        OssCallExecutor executor = openedExecutor();
+        AtomicInteger attempts = new AtomicInteger();
+
+        // 首发请求先失败，对冲请求后失败：两路都不再各自占用探测名额
+        assertThrows(ClientException.class, () -> executor.executeHedged(BUCKET, hedger, "get", () -> {
+            int attempt = attempts.incrementAndGet();
+            return executor.executeAcquired(BUCKET, () -> {
+                sleep(attempt == 1 ? 30 : 60);
+                throw new ClientException("attempt " + attempt);
+            });
+        }, null));
+        assertEquals(2, attempts.get());
+
+        // 探测失败后重新打开，打开时间结束后可以再次探测，而不是永远拒绝
+        assertEquals(CircuitBreaker.State.OPEN, breakerState(executor));
+        assertFalse(executor.isAvailable(BUCKET));
+        Thread.sleep(OPEN_MILLIS + 10);
+        assertTrue(executor.isAvailable(BUCKET));
+        assertEquals("ok", executor.execute(BUCKET, () -> "ok"));
+        assertEquals(CircuitBreaker.State.CLOSED, breakerState(executor));
+    }
+
+    @Test
+    void hedgedProbeInHalfOpenClosesBreakerOnSuccess() throws Exception {
+        OssCallExecutor executor = openedExecutor();
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = executor.executeHedged(BUCKET, hedger, "get", () -> {
+            int attempt = attempts.incrementAndGet();
+            return executor.executeAcquired(BUCKET, () -> {
+                sleep(attempt == 1 ? 100 : 0);
+                return "attempt " + attempt;
+            });
+        }, null);
+
+        assertEquals("attempt 2", result);
+        assertEquals(CircuitBreaker.State.CLOSED, breakerState(executor));
+    }
+
+    @Test
+    void hedgedCallIsRejectedWithoutRecordingWhileOpen() {
+        OssCallExecutor executor = new OssCallExecutor(1, 0, 0, 1, 60_000);
+        assertThrows(ClientException.class, () -> executor.execute(BUCKET, () -> {
+            throw new ClientException("down");
+        }));
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(CircuitBreaker.OpenException.class, () -> executor.executeHedged(BUCKET, hedger, "get",
+                attempts::incrementAndGet, null));
+        assertEquals(0, attempts.get());
+    }
+
+    /**
+     * 连续失败一次即打开，并等到可以进入半开状态
+     */
+    private OssCallExecutor openedExecutor() throws InterruptedException {
+        OssCallExecutor executor = new OssCallExecutor(1, 0, 0, 1, OPEN_MILLIS);
+        assertThrows(ClientException.class, () -> executor.execute(BUCKET, () -> {
+            throw new ClientException("down");
+        }));
+        assertEquals(CircuitBreaker.State.OPEN, breakerState(executor));
+        Thread.sleep(OPEN_MILLIS + 10);
+        return executor;
+    }
+
+    private static CircuitBreaker.State breakerState(OssCallExecutor executor) {
+        return CircuitBreaker.State.valueOf(executor.getBreakerStates().get(BUCKET));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClientException("interrupted");
+        }
+    }
+}
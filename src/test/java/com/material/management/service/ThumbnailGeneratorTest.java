@@ -0,0 +1,68 @@
+package com.material.management.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 缩略图生成：源采样步长计算与采样解码
+ */
+class ThumbnailGeneratorTest {
+
+    @Test
+    void subsamplingKeepsTwiceTheTargetSize() {
+        // 8000×6000缩到200×200：按长边比例40，保留2倍后步长20
+        assertEquals(20, ThumbnailGenerator.computeSubsampling(8000, 6000, 200, 200));
+        // 高度方向比例更大时按高度计算
+        assertEquals(15, ThumbnailGenerator.computeSubsampling(1000, 6000, 200, 200));
+        // 不足2倍目标尺寸的图片不采样
+        assertEquals(1, ThumbnailGenerator.computeSubsampling(399, 300, 200, 200));
+        assertEquals(1, ThumbnailGenerator.computeSubsampling(100, 100, 200, 200));
+    }
+
+    @Test
+    void subsamplingRoundsDown() {
+        assertEquals(2, ThumbnailGenerator.computeSubsampling(1199, 100, 200, 200));
+        assertEquals(3, ThumbnailGenerator.computeSubsampling(1200, 100, 200, 200));
+    }
+
+    @Test
+    void invalidTargetDisablesSubsampling() {
+        assertEquals(1, ThumbnailGenerator.computeSubsampling(8000, 6000, 0, 200));
+        assertEquals(1, ThumbnailGenerator.computeSubsampling(8000, 6000, 200, -1));
+    }
+
+    @Test
+    void decodeSubsampledReducesDecodedSize() throws IOException {
+        byte[] png = encodePng(1600, 800);
+
+        BufferedImage image = ThumbnailGenerator.decodeSubsampled(new ByteArrayInputStream(png), 100, 100);
+
+        // 步长8：1600/8=200，800/8=100
+        assertEquals(200, image.getWidth());
+        assertEquals(100, image.getHeight());
+        BufferedImage scaled = ThumbnailGenerator.scale(image, 100, 100);
+        assertTrue(scaled.getWidth() <= 100 && scaled.getHeight() <= 100);
+    }
+
+    @Test
+    void decodeSubsampledRejectsNonImageData() {
+        assertThrows(IOException.class, () ->
+                ThumbnailGenerator.decodeSubsampled(new ByteArrayInputStream(new byte[] {1, 2, 3, 4}), 100, 100));
+    }
+
+    private static byte[] encodePng(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return output.toByteArray();
+    }
+}
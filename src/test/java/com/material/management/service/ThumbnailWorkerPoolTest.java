@@ -0,0 +1,151 @@
+package com.material.management.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 缩略图工作线程池：优先级顺序、按key去重、提升优先级、无等待者时丢弃
+ */
+class ThumbnailWorkerPoolTest {
+
+    private static final long TIMEOUT_MILLIS = 2000;
+
+    private final ThumbnailWorkerPool<String> pool = new ThumbnailWorkerPool<>(1, 10);
+    private final CountDownLatch gate = new CountDownLatch(1);
+    private final List<String> executed = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        gate.countDown();
+        pool.shutdown();
+    }
+
+    @Test
+    void runsHigherPriorityFirst() throws Exception {
+        ThumbnailWorkerPool.Ticket<String> blocker = blockWorker();
+        ThumbnailWorkerPool.Ticket<String> background = pool.submit("bg", ThumbnailWorkerPool.Priority.BACKGROUND, task("bg"));
+        ThumbnailWorkerPool.Ticket<String> prefetch = pool.submit("pre", ThumbnailWorkerPool.Priority.PREFETCH, task("pre"));
+        ThumbnailWorkerPool.Ticket<String> viewport = pool.submit("view", ThumbnailWorkerPool.Priority.VIEWPORT, task("view"));
+
+        gate.countDown();
+        blocker.await(TIMEOUT_MILLIS);
+        background.await(TIMEOUT_MILLIS);
+        prefetch.await(TIMEOUT_MILLIS);
+        viewport.await(TIMEOUT_MILLIS);
+
+        assertEquals(List.of("blocker", "view", "pre", "bg"), executed);
+    }
+
+    @Test
+    void sameKeyIsGeneratedOnce() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        ThumbnailWorkerPool.Ticket<String> blocker = blockWorker();
+        ThumbnailWorkerPool.Ticket<String> first = pool.submit("a.jpg", ThumbnailWorkerPool.Priority.VIEWPORT, () -> {
+            calls.incrementAndGet();
+            return "thumb";
+        });
+        ThumbnailWorkerPool.Ticket<String> second = pool.submit("a.jpg", ThumbnailWorkerPool.Priority.VIEWPORT, () -> {
+            calls.incrementAndGet();
+            return "other";
+        });
+        assertEquals(1, pool.getQueueSize());
+
+        gate.countDown();
+        blocker.await(TIMEOUT_MILLIS);
+        assertEquals("thumb", first.await(TIMEOUT_MILLIS));
+        assertEquals("thumb", second.await(TIMEOUT_MILLIS));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void joiningWithHigherPriorityPromotesQueuedJob() throws Exception {
+        ThumbnailWorkerPool.Ticket<String> blocker = blockWorker();
+        ThumbnailWorkerPool.Ticket<String> prefetch = pool.submit("pre", ThumbnailWorkerPool.Priority.PREFETCH, task("pre"));
+        ThumbnailWorkerPool.Ticket<String> background = pool.submit("bg", ThumbnailWorkerPool.Priority.BACKGROUND, task("bg"));
+        // 视口请求命中已排队的后台任务，后台任务提升到预取任务之前
+        ThumbnailWorkerPool.Ticket<String> promoted = pool.submit("bg", ThumbnailWorkerPool.Priority.VIEWPORT, task("unused"));
+
+        gate.countDown();
+        blocker.await(TIMEOUT_MILLIS);
+        prefetch.await(TIMEOUT_MILLIS);
+        assertEquals("bg", background.await(TIMEOUT_MILLIS));
+        assertEquals("bg", promoted.await(TIMEOUT_MILLIS));
+
+        assertEquals(List.of("blocker", "bg", "pre"), executed);
+    }
+
+    @Test
+    void queuedJobIsDroppedWhenAllWaitersLeave() throws Exception {
+        ThumbnailWorkerPool.Ticket<String> blocker = blockWorker();
+        ThumbnailWorkerPool.Ticket<String> first = pool.submit("a.jpg", ThumbnailWorkerPool.Priority.VIEWPORT, task("a.jpg"));
+        ThumbnailWorkerPool.Ticket<String> second = pool.submit("a.jpg", ThumbnailWorkerPool.Priority.VIEWPORT, task("a.jpg"));
+        assertEquals(1, pool.getQueueSize());
+
+        first.release();
+        assertEquals(1, pool.getQueueSize());
+        second.release();
+        assertEquals(0, pool.getQueueSize());
+
+        // 同一个key重新提交时创建新任务
+        ThumbnailWorkerPool.Ticket<String> again = pool.submit("a.jpg", ThumbnailWorkerPool.Priority.VIEWPORT, task("again"));
+        gate.countDown();
+        blocker.await(TIMEOUT_MILLIS);
+        assertEquals("again", again.await(TIMEOUT_MILLIS));
+        assertEquals(List.of("blocker", "again"), executed);
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        ThumbnailWorkerPool<String> small = new ThumbnailWorkerPool<>(1, 1);
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            small.submit("running", ThumbnailWorkerPool.Priority.VIEWPORT, () -> {
+                started.countDown();
+                gate.await();
+                return "running";
+            });
+            assertTrue(started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+            small.submit("queued", ThumbnailWorkerPool.Priority.VIEWPORT, task("queued"));
+
+            assertThrows(RejectedExecutionException.class, () ->
+                    small.submit("overflow", ThumbnailWorkerPool.Priority.VIEWPORT, task("overflow")));
+        } finally {
+            gate.countDown();
+            small.shutdown();
+        }
+    }
+
+    /**
+     * 占住唯一的工作线程，之后提交的任务都在队列中等待
+     */
+    private ThumbnailWorkerPool.Ticket<String> blockWorker() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        ThumbnailWorkerPool.Ticket<String> ticket = pool.submit("blocker", ThumbnailWorkerPool.Priority.VIEWPORT, () -> {
+            started.countDown();
+            gate.await();
+            executed.add("blocker");
+            return "blocker";
+        });
+        assertTrue(started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        return ticket;
+    }
+
+    private Callable<String> task(String name) {
+        return () -> {
+            executed.add(name);
+            return name;
+        };
+    }
+}